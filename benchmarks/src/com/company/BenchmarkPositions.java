@@ -0,0 +1,18 @@
+package com.company;
+
+/**
+ * The positions every benchmark is run over.
+ * Taken from the perft corpus, so they cover the opening, forced jumps and kings, on 8x8 and 10x10.
+ */
+public final class BenchmarkPositions {
+
+	public static final String START = "B:bbbbbbbbbbbb........wwwwwwwwwwww";
+	public static final String OPENING = "W:bbbb.bbbbbb..b..w.....wwwwwww.ww";
+	public static final String JUMPS = "B:bb.b..b..b..w.b.ww..w...w.w...ww";
+	public static final String KINGS = "W:..b...B.....w....b.W.....w......";
+	public static final String START_10 = "B:bbbbbbbbbbbbbbbbbbbb..........wwwwwwwwwwwwwwwwwwww";
+	public static final String KINGS_10 = "B:b...b.bbb..bb.bb.....bw..B..b......b....w...www.w.";
+
+	private BenchmarkPositions() {
+	}
+}
@@ -0,0 +1,59 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation and board copying, the work done at every node of the search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+	@Param({
+			BenchmarkPositions.START,
+			BenchmarkPositions.OPENING,
+			BenchmarkPositions.JUMPS,
+			BenchmarkPositions.KINGS,
+			BenchmarkPositions.START_10,
+			BenchmarkPositions.KINGS_10
+	})
+	public String position;
+
+	private Board board;
+	private SqState player;
+	private Move move;
+
+	@Setup
+	public void setup() {
+		Position pos = new Position(position);
+		board = pos.getBoard();
+		player = pos.getPlayer();
+		move = board.getLegalMoves(player).get(0);
+	}
+
+	@Benchmark
+	public int getScore() {
+		return board.getScore(player);
+	}
+
+	@Benchmark
+	public Board copyAndMove() {
+		return board.copyAndMove(move);
+	}
+}
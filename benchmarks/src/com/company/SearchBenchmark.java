@@ -0,0 +1,69 @@
+package com.company;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole fixed-depth search, as done by the computer player every turn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({
+			BenchmarkPositions.START,
+			BenchmarkPositions.OPENING,
+			BenchmarkPositions.JUMPS,
+			BenchmarkPositions.KINGS,
+			BenchmarkPositions.START_10,
+			BenchmarkPositions.KINGS_10
+	})
+	public String position;
+
+	@Param({"3"})
+	public int depth;
+
+	@Param({"1"})
+	public int threads;
+
+	private ForkJoinPool pool;
+	private Board board;
+	private SqState player;
+
+	@Setup
+	public void setup() {
+		Position pos = new Position(position);
+		board = pos.getBoard();
+		player = pos.getPlayer();
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public int search() {
+		AITask root = new AITask(board, player, 0, depth);
+		pool.invoke(root);
+		return root.getScore();
+	}
+}
@@ -1,20 +1,30 @@
 package com.company;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.RecursiveAction;
 
 public class AITask extends RecursiveAction {
 
+	private static final long serialVersionUID = 1L;
+
 	// Layers of moves the AI will evaluate
 	private final int NUM_AI_ITERS;
 
 	private final Board board;
 	private final SqState player;
 	private final int iters;
+	private final SearchStats stats;
+	private final SearchControl control;
+	private final TranspositionTable table;
 	private int score;
 	private Move move;
-	private final Random rand = new Random(System.currentTimeMillis());
+	private List<Move> pv = Collections.emptyList();
+	private long nodes;
+	private boolean stopped;
+	private final long seed;
 
     /**
      * Constructor.
@@ -25,10 +35,79 @@ public class AITask extends RecursiveAction {
      * @param maxIters - How deep we can go.
      */
 	public AITask(Board board, SqState player, int iters, int maxIters) {
+		this(board, player, iters, maxIters, null);
+	}
+
+    /**
+     * Constructor.
+     *
+     * @param board - The current board being evaluated.
+     * @param player - Whose turn it is.
+     * @param iters - How deep we are.
+     * @param maxIters - How deep we can go.
+     * @param stats - Where to count the work done, or null to not count it.
+     */
+	public AITask(Board board, SqState player, int iters, int maxIters, SearchStats stats) {
+		this(board, player, iters, maxIters, stats, null);
+	}
+
+    /**
+     * Constructor.
+     *
+     * @param board - The current board being evaluated.
+     * @param player - Whose turn it is.
+     * @param iters - How deep we are.
+     * @param maxIters - How deep we can go.
+     * @param stats - Where to count the work done, or null to not count it.
+     * @param control - What can stop the search early, or null if it always runs to the end.
+     */
+	public AITask(Board board, SqState player, int iters, int maxIters, SearchStats stats, SearchControl control) {
+		this(board, player, iters, maxIters, stats, control, null);
+	}
+
+    /**
+     * Constructor.
+     * With a table, subtrees already searched are looked up instead of searched again,
+     * and the principal variation of the best move is kept.
+     *
+     * @param board - The current board being evaluated.
+     * @param player - Whose turn it is.
+     * @param iters - How deep we are.
+     * @param maxIters - How deep we can go.
+     * @param stats - Where to count the work done, or null to not count it.
+     * @param control - What can stop the search early, or null if it always runs to the end.
+     * @param table - Where to share subtree results, or null to search every subtree.
+     */
+	public AITask(Board board, SqState player, int iters, int maxIters, SearchStats stats, SearchControl control,
+				  TranspositionTable table) {
+		this(board, player, iters, maxIters, stats, control, table, 0);
+	}
+
+    /**
+     * Constructor.
+     * With a seed, ties between equally good moves are broken the same way every time.
+     * Each task below this one gets its own seed, worked out from this one's and the moves leading to it,
+     * so the result doesn't depend on the order the tasks run in.
+     *
+     * @param board - The current board being evaluated.
+     * @param player - Whose turn it is.
+     * @param iters - How deep we are.
+     * @param maxIters - How deep we can go.
+     * @param stats - Where to count the work done, or null to not count it.
+     * @param control - What can stop the search early, or null if it always runs to the end.
+     * @param table - Where to share subtree results, or null to search every subtree.
+     * @param seed - Seed for breaking ties, or 0 to seed from the clock.
+     */
+	public AITask(Board board, SqState player, int iters, int maxIters, SearchStats stats, SearchControl control,
+				  TranspositionTable table, long seed) {
 		this.board = board;
 		this.player = player;
 		this.iters = iters;
 		this.NUM_AI_ITERS = maxIters;
+		this.stats = stats;
+		this.control = control;
+		this.table = table;
+		this.seed = seed;
 	}
 
     /**
@@ -39,9 +118,30 @@ public class AITask extends RecursiveAction {
      */
 	@Override
 	protected void compute() {
+		long start = stats == null ? 0 : System.nanoTime();
+
+		// Reuse a previous search of this subtree
+		if (table != null) {
+			TranspositionTable.Entry entry = table.get(board, player, iters, NUM_AI_ITERS);
+			if (entry != null) {
+				move = entry.getMove();
+				score = entry.getScore();
+				pv = entry.getPv();
+				return;
+			}
+		}
+
 		Tuple<Move, Integer> bestMoveContainer = compAIWork();
 		move = bestMoveContainer.getKey();
 		score = bestMoveContainer.getVal();
+
+		if (table != null && !stopped) {
+			table.put(board, player, iters, NUM_AI_ITERS, new TranspositionTable.Entry(move, score, pv));
+		}
+
+		if (stats != null) {
+			stats.time(iters, System.nanoTime() - start);
+		}
 	}
 
     /**
@@ -62,6 +162,112 @@ public class AITask extends RecursiveAction {
 		return score;
 	}
 
+    /**
+     * Getter for 'nodes' field.
+     *
+     * @return - How many boards were searched by this task and the tasks below it.
+     */
+	protected long getNodes() {
+		return nodes;
+	}
+
+    /**
+     * Getter for 'pv' field.
+     * Only kept when searching with a table.
+     *
+     * @return - The best move followed by the best moves after it, or an empty list.
+     */
+	protected List<Move> getPv() {
+		return pv;
+	}
+
+    /**
+     * Getter for 'stopped' field.
+     * A stopped task didn't look at every move, so its move and score can't be used.
+     *
+     * @return - True if the search was stopped before this task finished, false if not.
+     */
+	protected boolean isStopped() {
+		return stopped;
+	}
+
+    /**
+     * Scores one move from the root of a search, the same way the root task would.
+     * Lets the root moves be shared out between processes.
+     * Must be called from one of a ForkJoinPool's threads.
+     *
+     * @param board - The root board.
+     * @param player - Whose turn it is.
+     * @param move - The root move to score.
+     * @param maxIters - How deep the whole search goes.
+     * @return - A Tuple with the move's score and how many boards were searched below it.
+     */
+	static Tuple<Integer, Long> scoreRootMove(Board board, SqState player, Move move, int maxIters) {
+		AITask task = scoreRootMove(board, player, move, maxIters, null, null);
+		return new Tuple<>(task.getScore(), task.getNodes());
+	}
+
+    /**
+     * Scores one move from the root of a search, the same way the root task would.
+     * Must be called from one of a ForkJoinPool's threads.
+     *
+     * @param board - The root board.
+     * @param player - Whose turn it is.
+     * @param move - The root move to score.
+     * @param maxIters - How deep the whole search goes.
+     * @param control - What can stop the search early, or null.
+     * @param table - Where to share subtree results, or null.
+     * @return - A finished task holding the move's score, its nodes and, with a table, its variation.
+     */
+	static AITask scoreRootMove(Board board, SqState player, Move move, int maxIters,
+								SearchControl control, TranspositionTable table) {
+		AITask root = new AITask(board, player, 0, maxIters, null, control, table);
+		Board testBoard = board.copyAndMove(move);
+		int currentScore = testBoard.getScore(player) - testBoard.getScore(player.getOpposite());
+
+		root.move = move;
+		root.pv = Collections.singletonList(move);
+		root.score = currentScore;
+
+		// The root is at iteration 0, so nothing is subtracted for depth
+		if (maxIters > 0) {
+			AITask task = new AITask(testBoard, player, 1, maxIters, null, control, table);
+			task.invoke();
+
+			root.score += task.getScore();
+			root.nodes = task.getNodes();
+			root.stopped = task.isStopped();
+			if (table != null) {
+				root.pv = new ArrayList<>(task.getPv().size() + 1);
+				root.pv.add(move);
+				root.pv.addAll(task.getPv());
+			}
+		}
+
+		return root;
+	}
+
+    /**
+     * Works out the seed of the task below one of this task's moves.
+     * Mixes the bits so that nearby seeds and moves give unrelated seeds.
+     *
+     * @param index - Which of this board's moves leads to the task.
+     * @return - The task's seed, or 0 if this task isn't seeded.
+     */
+	private long childSeed(int index) {
+		if (seed == 0) {
+			return 0;
+		}
+
+		long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z ^= z >>> 31;
+
+		// 0 would turn seeding off
+		return z == 0 ? 1 : z;
+	}
+
 	/**
 	 * Recursively searches through the state space of possible board layouts.
 	 * Weaknesses:
@@ -78,9 +284,19 @@ public class AITask extends RecursiveAction {
 		Board testBoard;
 		ArrayList<Move> allMoves = board.getLegalMoves(player);
 		ArrayList<Move> bestMoves = new ArrayList<>();
+		ArrayList<List<Move>> bestLines = new ArrayList<>();
 		Tuple<Move, Integer> bestMoveContainer;
 		Move move;
 
+		// Count this board
+		nodes = 1;
+		if (stats != null) {
+			stats.node(iters, allMoves.size());
+		}
+		if (control != null) {
+			control.node();
+		}
+
 		// Dead board - try not to get here
 		if (allMoves.isEmpty()) {
 			return new Tuple<>(null, netScore);
@@ -89,20 +305,52 @@ public class AITask extends RecursiveAction {
 		// Build list of best moves
 		for (int i = 0; i < allMoves.size(); i++) {
 
+			// Give up on the rest of the moves if the search was stopped
+			if (control != null && control.isStopped()) {
+				stopped = true;
+				if (stats != null) {
+					stats.stopped();
+				}
+				break;
+			}
+
 			// Set vars
 			move = allMoves.get(i);
 			testBoard = board.copyAndMove(move);
 			playerScore = testBoard.getScore(player);
 			opponentScore = testBoard.getScore(player.getOpposite());
 			currentScore = playerScore - opponentScore;
+			if (stats != null) {
+				stats.evaluations(2);
+			}
 
 			// Recur until we reach the end of a tree
 			if (iters < NUM_AI_ITERS) {
 
 				// Create a new task with the next board to evaluate
-				AITask task = new AITask(testBoard, player, iters + 1, NUM_AI_ITERS);
+				AITask task = new AITask(testBoard, player, iters + 1, NUM_AI_ITERS, stats, control, table,
+						childSeed(i));
+				SplitEvent event = SplitEvent.start();
 				task.fork();
                 task.join();
+				nodes += task.getNodes();
+
+				// Only build the position for events over the recording's threshold
+				if (event != null) {
+					event.end();
+					if (event.shouldCommit()) {
+						event.ply = iters + 1;
+						event.position = new Position(testBoard, player).toString();
+						event.nodes = task.getNodes();
+						event.commit();
+					}
+				}
+
+				// A stopped subtree stops this one too
+				if (task.isStopped()) {
+					stopped = true;
+					break;
+				}
 
                 /**
                  * The score is added to its parents score because
@@ -118,23 +366,33 @@ public class AITask extends RecursiveAction {
 					netScore = currentScore;
 					bestMoves.clear();
 					bestMoves.add(move);
+					bestLines.clear();
+					bestLines.add(task.getPv());
 				} else if (currentScore == netScore) {
 					bestMoves.add(move);
+					bestLines.add(task.getPv());
 				}
 			} else {
+				if (stats != null) {
+					stats.leafEval();
+				}
 
 				// Build the list of highest scoring moves
 				if (currentScore > netScore) {
 					netScore = currentScore;
 					bestMoves.clear();
 					bestMoves.add(move);
+					bestLines.clear();
+					bestLines.add(Collections.emptyList());
 				} else if (currentScore == netScore) {
 					bestMoves.add(move);
+					bestLines.add(Collections.emptyList());
 				}
 			}
 		}
 
 		int r;
+		Random rand = new Random(seed == 0 ? System.currentTimeMillis() : seed);
 
 		// No best moves means every move leads to a losing state
 		if (bestMoves.isEmpty()) {
@@ -142,11 +400,21 @@ public class AITask extends RecursiveAction {
 			// Select a random legal move
 			r = rand.nextInt(allMoves.size());
 			move = allMoves.get(r);
+			if (table != null) {
+				pv = Collections.singletonList(move);
+			}
 		} else {
 
 			// Select a random best move
 			r = rand.nextInt(bestMoves.size());
 			move = bestMoves.get(r);
+
+			// Keep the line it leads to
+			if (table != null) {
+				pv = new ArrayList<>(bestLines.get(r).size() + 1);
+				pv.add(move);
+				pv.addAll(bestLines.get(r));
+			}
 		}
 
 		// Return the selected move along with its score
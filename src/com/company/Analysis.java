@@ -0,0 +1,49 @@
+package com.company;
+
+import java.util.List;
+
+/**
+ * Prints the best few moves of a position from the command line.
+ */
+public class Analysis {
+
+    /**
+     * Runs an analysis from the command line.
+     * Usage: analyze [--lines N] [--depth N] [--threads N] [position]
+     * The position is in the text form of Position, the starting position by default.
+     *
+     * @param args - The command line arguments, after 'analyze'.
+     */
+	public static void run(String[] args) {
+		int lines = 3, depth = 4;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Position position = new Position(new Board(8, 8), SqState.BLACK);
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--lines":
+					lines = Integer.parseInt(args[++i]);
+					break;
+				case "--depth":
+					depth = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				default:
+					position = new Position(args[i]);
+			}
+		}
+
+		try (Engine engine = new Engine(threads)) {
+			TranspositionTable table = new TranspositionTable(1 << 20);
+			long start = System.nanoTime();
+			List<AnalysisLine> ranked = engine.analyze(position, new SearchLimits(depth), lines, table);
+
+			for (int i = 0; i < ranked.size(); i++) {
+				System.out.println((i + 1) + ". " + ranked.get(i));
+			}
+			System.out.println(table.size() + " boards stored in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		}
+	}
+}
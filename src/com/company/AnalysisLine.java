@@ -0,0 +1,52 @@
+package com.company;
+
+import java.util.List;
+
+/**
+ * One ranked line of an analysis: a root move, its score, and the moves expected to follow it.
+ */
+public class AnalysisLine {
+
+	private final Move move;
+	private final int score;
+	private final List<Move> pv;
+
+    /**
+     * Constructor.
+     *
+     * @param move - The root move.
+     * @param score - The score of the root move.
+     * @param pv - The root move followed by the best moves after it.
+     */
+	public AnalysisLine(Move move, int score, List<Move> pv) {
+		this.move = move;
+		this.score = score;
+		this.pv = pv;
+	}
+
+	public Move getMove() {
+		return move;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public List<Move> getPv() {
+		return pv;
+	}
+
+    /**
+     * Writes the line as its score followed by its moves.
+     *
+     * @return - The line in text form, e.g. "-28 c2-d3 d3-e4".
+     */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder().append(score);
+		for (Move move : pv) {
+			text.append(' ').append(move.toNotation());
+		}
+		return text.toString();
+	}
+}
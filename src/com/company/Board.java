@@ -2,12 +2,17 @@ package com.company;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Board {
 
 	private int rows, cols;
 	private SqState[][] board;
 
+	// The same pieces as bits, one per valid square in the order of Position's text form
+	private long black, white, kings;
+	private final Geometry geometry;
+
     /**
      * Constructor.
      *
@@ -18,13 +23,34 @@ public class Board {
 		this.rows = rows;
 		this.cols = cols;
 		this.board = new SqState[rows][cols];
+		this.geometry = Geometry.of(rows, cols);
 
 		initBoard();
 	}
 
     /**
-     * Creates a board. Technically should be able to handle variable sized board,
-     * but it's only been tested on 8x8.
+     * Constructor.
+     * Copies another board.
+     *
+     * @param other - The board to copy.
+     */
+	private Board(Board other) {
+		this.rows = other.rows;
+		this.cols = other.cols;
+		this.board = new SqState[rows][];
+		for (int i = 0; i < rows; i++) {
+			this.board[i] = other.board[i].clone();
+		}
+		this.black = other.black;
+		this.white = other.white;
+		this.kings = other.kings;
+		this.geometry = other.geometry;
+	}
+
+    /**
+     * Creates a board. Handles any size with up to 64 valid squares,
+     * and has been tested on 8x8 and 10x10.
+     * The rules stay the same on every size: men move and jump one diagonal forward, kings in any direction.
      *
      */
 	private void initBoard() {
@@ -44,7 +70,7 @@ public class Board {
 					state = SqState.WHITE;
 				}
 
-				board[i][j] = state;
+				setSquare(i, j, state);
 			}
 		}
 	}
@@ -59,16 +85,7 @@ public class Board {
 	public Board copyAndMove(Move move) {
 
 		// Copy the current board over
-		Board testBoard = new Board(rows, cols);
-		for (int i = 0; i < rows; i++) {
-			for (int j = 0; j < cols; j++) {
-				testBoard.setSquare(
-						i,
-						j,
-						board[i][j]
-				);
-			}
-		}
+		Board testBoard = new Board(this);
 
 		// Do the potential move
 		move.execute(testBoard);
@@ -94,6 +111,33 @@ public class Board {
 		return cols;
 	}
 
+    /**
+     * Getter for 'black' field.
+     *
+     * @return - A bit for every square with a black piece, in the order of Position's text form.
+     */
+	long getBlack() {
+		return black;
+	}
+
+    /**
+     * Getter for 'white' field.
+     *
+     * @return - A bit for every square with a white piece, in the order of Position's text form.
+     */
+	long getWhite() {
+		return white;
+	}
+
+    /**
+     * Getter for 'kings' field.
+     *
+     * @return - A bit for every square with a king of either color, in the order of Position's text form.
+     */
+	long getKings() {
+		return kings;
+	}
+
     /**
      * Finds out what piece is on the given square.
      *
@@ -118,6 +162,23 @@ public class Board {
      */
 	public void setSquare(int row, int col, SqState state) {
 		board[row][col] = state;
+
+		// Keep the bits in step
+		int square = geometry.index[row][col];
+		if (square >= 0) {
+			long bit = 1L << square;
+			black &= ~bit;
+			white &= ~bit;
+			kings &= ~bit;
+			if (state.isSame(SqState.BLACK)) {
+				black |= bit;
+			} else if (state.isSame(SqState.WHITE)) {
+				white |= bit;
+			}
+			if (state.isKinged()) {
+				kings |= bit;
+			}
+		}
 	}
 
     /**
@@ -151,74 +212,129 @@ public class Board {
 
     /**
      * Prints this board.
+     *
+     */
+	public void printBoard() {
+		System.out.print(this);
+	}
+
+    /**
+     * Draws this board.
      * Puts a row of col numbers at the top
      * and a col of row letters on the side.
      *
+     * @return - The drawing, one line per row.
      */
-	public void printBoard() {
-		System.out.print("   ");
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+
+		out.append("   ");
 		for (int k = 0; k < cols; k++) {
-			System.out.print(k + 1 + " ");
+			// Two digit numbers take up their own space
+			out.append(k + 1).append(k + 1 < 10 ? " " : "");
 		}
-		System.out.println();
+		out.append(System.lineSeparator());
 
 		for (int i = 0; i < rows; i++) {
-			System.out.print((char)('a' + i) + " ");
+			out.append((char)('a' + i)).append(' ');
 			for (int j = 0; j < cols; j++) {
-				System.out.print("|");
-				System.out.print(board[i][j].getToken());
+				out.append('|');
+				out.append(board[i][j].getToken());
 			}
-			System.out.println("|");
+			out.append('|').append(System.lineSeparator());
 		}
+
+		return out.toString();
 	}
 
     /**
-     * Tests every possible move the given player can make for legality.
+     * Finds every move the given player can make.
+     * Works on the bits rather than testing every square, looking up each piece's neighbours in a table.
+     * Gives the same moves in the same order as testing each square with 'Move.isLegal':
+     * pieces from the top left, row by row, and each piece's moves up-left, up-right, down-left, down-right.
+     * Jumps have to be taken, so if there are any, only the jumps are returned.
      *
      * @param player - The player being tested.
      * @return - A list of legal moves.
      */
 	public ArrayList<Move> getLegalMoves(SqState player) {
+		MoveGenEvent event = MoveGenEvent.sample();
 		ArrayList<Move> moves = new ArrayList<>();
-		Move move;
-		int[] source = new int[2], dest = new int[2];
-
-		// Check all squares on the board
-		for (int i = 0; i < getRows(); i++) {
-			for (int j = 0; j < getCols(); j++) {
-
-				// We only care about squares with this player's pieces
-				if (getSquare(i, j).isSame(player)) {
-
-					// Set source
-					source[0] = i;
-					source[1] = j;
-
-					// Check all squares around source
-					for (int k = -2; k <= 2; k++) {
-						for (int l = -2; l <= 2; l++) {
-
-							// Set dest
-							dest[0] = i + k;
-							dest[1] = j + l;
-
-							// Add move to list if it's legal
-							move = new Move(source.clone(), dest.clone(), this, player);
-							if (move.isLegal(true)) {
-								moves.add(move);
-							}
-						}
+		boolean isBlack = player.isSame(SqState.BLACK);
+		long own = isBlack ? black : white;
+		long opponent = isBlack ? white : black;
+		long empty = geometry.all & ~(black | white);
+
+		// Jumps first, since they have to be taken
+		for (long bits = own; bits != 0; bits &= bits - 1) {
+			int square = Long.numberOfTrailingZeros(bits);
+			for (int dir = 0; dir < 4; dir++) {
+				int over = geometry.step[dir][square], land = geometry.jump[dir][square];
+				if (land >= 0 && canMove(square, dir, isBlack) &&
+						(opponent >>> over & 1) != 0 && (empty >>> land & 1) != 0) {
+					moves.add(newMove(square, land, player, true));
+				}
+			}
+		}
+
+		// Otherwise slides
+		if (moves.isEmpty()) {
+			for (long bits = own; bits != 0; bits &= bits - 1) {
+				int square = Long.numberOfTrailingZeros(bits);
+				for (int dir = 0; dir < 4; dir++) {
+					int to = geometry.step[dir][square];
+					if (to >= 0 && canMove(square, dir, isBlack) && (empty >>> to & 1) != 0) {
+						moves.add(newMove(square, to, player, false));
 					}
 				}
 			}
 		}
 
+		if (event != null) {
+			event.player = player.name();
+			event.moves = moves.size();
+			event.commit();
+		}
+
 		return moves;
 	}
 
+    /**
+     * Checks if the piece on a square can move in a direction.
+     * Men only move forward, black down the board and white up it, while kings move any way.
+     *
+     * @param square - The square of the piece.
+     * @param dir - The direction, as a Geometry direction.
+     * @param isBlack - Whether the piece is black.
+     * @return - True if it can move that way, false if not.
+     */
+	private boolean canMove(int square, int dir, boolean isBlack) {
+		if ((kings >>> square & 1) != 0) {
+			return true;
+		}
+
+		return isBlack ? Geometry.ROW_STEP[dir] > 0 : Geometry.ROW_STEP[dir] < 0;
+	}
+
+    /**
+     * Creates a move between two squares, already known to be legal.
+     *
+     * @param from - The source square.
+     * @param to - The destination square.
+     * @param player - Who's moving.
+     * @param jumping - Whether it's a jump.
+     * @return - The move.
+     */
+	private Move newMove(int from, int to, SqState player, boolean jumping) {
+		return new Move(new int[]{geometry.row[from], geometry.col[from]},
+				new int[]{geometry.row[to], geometry.col[to]}, this, player, jumping);
+	}
+
     /**
      * Finds the score the given player has on this board.
-     * Each square on the board contributes 1 of 5 values to the player's score:
+     * Each square on the board contributes 1 of 5 values to the player's score,
+     * these being the defaults unless a weights file was loaded (see Weights):
      * 4 points - safe kings
      * 3 points - safe normals
      * 2 points - unsafe kings
@@ -233,34 +349,57 @@ public class Board {
      * @return - The score.
      */
 	public int getScore(SqState player) {
+		EvalEvent event = EvalEvent.sample();
+		int[] weights = Weights.CURRENT;
 		int score = 0;
 
-		// Loop through the board, tallying up points for each piece owned by the player
-		for (int i = 0; i < rows; i++) {
-			for (int j = 0; j < cols; j++) {
-				if (board[i][j].isSame(player)) {
-
-					// Safe kings worth 4, safe normals worth 3, unsafe kings worth 2, unsafe normals worth 1
-					if (isSafe(i,j)) {
-						if (board[i][j].isKinged()) {
-							score += 4;
-						} else {
-							score += 3;
-						}
-					} else {
-						if (board[i][j].isKinged()) {
-							score += 2;
-						} else {
-							score += 1;
-						}
-					}
-				}
-			}
+		// Loop through the player's pieces, tallying up points for each
+		for (long bits = player.isSame(SqState.BLACK) ? black : white; bits != 0; bits &= bits - 1) {
+			score += weights[getFeature(Long.numberOfTrailingZeros(bits))];
+		}
+
+		if (event != null) {
+			event.player = player.name();
+			event.score = score;
+			event.commit();
 		}
 
 		return score;
 	}
 
+    /**
+     * Counts the player's pieces of each kind scored by 'getScore'.
+     *
+     * @param player - The player whose pieces we're counting.
+     * @param counts - Filled with the counts, by Weights feature index.
+     */
+	public void countFeatures(SqState player, int[] counts) {
+		for (int i = 0; i < Weights.COUNT; i++) {
+			counts[i] = 0;
+		}
+
+		for (long bits = player.isSame(SqState.BLACK) ? black : white; bits != 0; bits &= bits - 1) {
+			counts[getFeature(Long.numberOfTrailingZeros(bits))]++;
+		}
+	}
+
+    /**
+     * Finds what kind of piece is on a square.
+     *
+     * @param square - The valid square of the piece.
+     * @return - The Weights feature index of the piece.
+     */
+	private int getFeature(int square) {
+		boolean king = (kings >>> square & 1) != 0;
+
+		// Safe kings worth 4, safe normals worth 3, unsafe kings worth 2, unsafe normals worth 1 by default
+		if (isSafe(square)) {
+			return king ? Weights.SAFE_KING : Weights.SAFE_MAN;
+		}
+
+		return king ? Weights.UNSAFE_KING : Weights.UNSAFE_MAN;
+	}
+
     /**
      * Checks if a piece is safe.
      * No player is necessary, since it gets the player from the color of the piece.
@@ -268,34 +407,92 @@ public class Board {
      *      - there is an opponent piece adjacent to it
      *      - the opponent can legally make the jump
      *
-     * @param row - The row of the piece.
-     * @param col - The col of the piece.
+     * @param square - The valid square of the piece.
      * @return - True if the piece is safe, false if not.
      */
-	private boolean isSafe(int row, int col) {
-		SqState player = board[row][col];
-		int[] source = new int[2], dest = new int[2];
-		Move move;
-
-		// Check adjacent squares (skipping 0 because only diagonals matter)
-		for (int i = -1; i <= 1; i += 2) {
-			for (int j = -1; j <= 1; j += 2) {
-				// Source
-				source[0] = row + i;
-				source[1] = col + j;
-
-				// Dest is opposite the source
-				dest[0] = row - i;
-				dest[1] = col - j;
-
-				// Create test jump and test it
-				move = new Move(source, dest, this, player.getOpposite());
-				if (move.isLegal(true)) {
-					return false;
-				}
+	private boolean isSafe(int square) {
+		boolean attackerBlack = (white >>> square & 1) != 0;
+		long attackers = attackerBlack ? black : white;
+		long empty = geometry.all & ~(black | white);
+
+		// An attacker on one side jumps to the other, moving in the opposite direction to where it sits
+		for (int dir = 0; dir < 4; dir++) {
+			int from = geometry.step[dir][square], to = geometry.step[3 - dir][square];
+			if (from >= 0 && to >= 0 && (attackers >>> from & 1) != 0 && (empty >>> to & 1) != 0 &&
+					canMove(from, 3 - dir, attackerBlack)) {
+				return false;
 			}
 		}
 
 		return true;
 	}
+
+	/**
+	 * The layout of a board size: which squares are valid, and their neighbours.
+	 * Shared by every board of that size.
+	 */
+	private static final class Geometry {
+
+		// Directions, in the order moves are listed: up-left, up-right, down-left, down-right
+		private static final int[] ROW_STEP = {-1, -1, 1, 1};
+		private static final int[] COL_STEP = {-1, 1, -1, 1};
+
+		private static final ConcurrentHashMap<Long, Geometry> SIZES = new ConcurrentHashMap<>();
+
+		// Valid square number by row and col, -1 if not valid
+		private final int[][] index;
+
+		// Row and col by valid square number
+		private final int[] row, col;
+
+		// Square one step and two steps away, by direction and square, -1 if off the board
+		private final int[][] step, jump;
+
+		// A bit for every valid square
+		private final long all;
+
+		private Geometry(int rows, int cols) {
+			index = new int[rows][cols];
+			int count = 0;
+			for (int i = 0; i < rows; i++) {
+				for (int j = 0; j < cols; j++) {
+					index[i][j] = (i + j) % 2 == 1 ? count++ : -1;
+				}
+			}
+			if (count > 64) {
+				throw new IllegalArgumentException("Boards can have at most 64 valid squares: " + rows + "x" + cols);
+			}
+
+			row = new int[count];
+			col = new int[count];
+			step = new int[4][count];
+			jump = new int[4][count];
+			for (int i = 0; i < rows; i++) {
+				for (int j = 0; j < cols; j++) {
+					int square = index[i][j];
+					if (square < 0) {
+						continue;
+					}
+					row[square] = i;
+					col[square] = j;
+					for (int dir = 0; dir < 4; dir++) {
+						step[dir][square] = at(i + ROW_STEP[dir], j + COL_STEP[dir]);
+						jump[dir][square] = at(i + 2 * ROW_STEP[dir], j + 2 * COL_STEP[dir]);
+					}
+				}
+			}
+			all = count == 64 ? -1L : (1L << count) - 1;
+		}
+
+		private int at(int i, int j) {
+			if (i < 0 || i >= index.length || j < 0 || j >= index[i].length) {
+				return -1;
+			}
+			return index[i][j];
+		}
+
+		static Geometry of(int rows, int cols) {
+			return SIZES.computeIfAbsent((long) rows << 32 | cols, key -> new Geometry(rows, cols));
+		}
+	}
 }
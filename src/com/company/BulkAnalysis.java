@@ -0,0 +1,236 @@
+package com.company;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Searches a large number of positions, one per thread at a time.
+ * Positions are pulled from the input only as threads become free, and results are handed
+ * to the sink in batches through a bounded queue, so memory stays flat however many positions there are.
+ * Each thread keeps its own single threaded engine for every position it searches.
+ */
+public class BulkAnalysis {
+
+	// Marks a thread as finished
+	private static final List<Tuple<Position, SearchResult>> DONE = new ArrayList<>();
+
+	private final int threads;
+	private final SearchLimits limits;
+	private final int batchSize;
+
+    /**
+     * Constructor.
+     *
+     * @param threads - How many positions to search at once.
+     * @param limits - How much work to do per position, a depth or a node limit.
+     * @param batchSize - How many results to hand to the sink at once.
+     */
+	public BulkAnalysis(int threads, SearchLimits limits, int batchSize) {
+		this.threads = threads;
+		this.limits = limits;
+		this.batchSize = batchSize;
+	}
+
+    /**
+     * Searches every position of a stream.
+     *
+     * @param positions - The positions to search.
+     * @param sink - Where to send the results, called on this thread only.
+     * @return - How many positions were searched.
+     */
+	public long analyze(Stream<Position> positions, Consumer<List<Tuple<Position, SearchResult>>> sink)
+			throws InterruptedException {
+		return analyze(positions.iterator(), sink);
+	}
+
+    /**
+     * Searches every position of an iterator.
+     * Results are batched per thread, so they don't come out in the order they went in.
+     *
+     * @param positions - The positions to search, only ever read by one thread at a time.
+     * @param sink - Where to send the results, called on this thread only.
+     * @return - How many positions were searched.
+     */
+	public long analyze(Iterator<Position> positions, Consumer<List<Tuple<Position, SearchResult>>> sink)
+			throws InterruptedException {
+		// Two batches per thread are enough to keep the sink busy
+		BlockingQueue<List<Tuple<Position, SearchResult>>> batches = new ArrayBlockingQueue<>(threads * 2);
+		List<Thread> workers = new ArrayList<>(threads);
+		Throwable[] failure = new Throwable[1];
+
+		for (int i = 0; i < threads; i++) {
+			Thread worker = new Thread(() -> {
+				try (Engine engine = new Engine(1)) {
+					work(engine, positions, batches);
+				} catch (Throwable t) {
+					synchronized (failure) {
+						failure[0] = t;
+					}
+				} finally {
+					try {
+						batches.put(DONE);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}, "bulk-" + i);
+			worker.setDaemon(true);
+			workers.add(worker);
+			worker.start();
+		}
+
+		// Drain the batches until every thread is done
+		long count = 0;
+		int running = threads;
+		try {
+			while (running > 0) {
+				List<Tuple<Position, SearchResult>> batch = batches.take();
+				if (batch == DONE) {
+					running--;
+				} else {
+					sink.accept(batch);
+					count += batch.size();
+				}
+			}
+		} finally {
+			for (Thread worker : workers) {
+				worker.interrupt();
+			}
+		}
+
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw new IllegalStateException("Analysis failed", failure[0]);
+			}
+		}
+
+		return count;
+	}
+
+    /**
+     * Searches positions until there are none left, batching the results.
+     *
+     * @param engine - This thread's engine.
+     * @param positions - The shared input.
+     * @param batches - Where to put full batches.
+     */
+	private void work(Engine engine, Iterator<Position> positions,
+					  BlockingQueue<List<Tuple<Position, SearchResult>>> batches) throws InterruptedException {
+		List<Tuple<Position, SearchResult>> batch = new ArrayList<>(batchSize);
+
+		while (true) {
+			Position position;
+			synchronized (positions) {
+				if (!positions.hasNext()) {
+					break;
+				}
+				position = positions.next();
+			}
+
+			batch.add(new Tuple<>(position, engine.search(position, limits)));
+			if (batch.size() == batchSize) {
+				batches.put(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+
+		if (!batch.isEmpty()) {
+			batches.put(batch);
+		}
+	}
+
+    /**
+     * Runs a bulk analysis from the command line.
+     * Usage: bulk [--depth N] [--nodes N] [--threads N] [--batch N] [--out file] file
+     * The file has one position per line in the text form of Position, blank lines and '#' comments are skipped.
+     * Each result is written as 'position move score depth nodes', with moves as 'c2-d1' and '-' for none.
+     *
+     * @param args - The command line arguments, after 'bulk'.
+     */
+	public static void run(String[] args) throws IOException, InterruptedException {
+		int depth = 3, batchSize = 256;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long maxNodes = 0;
+		String file = null, outFile = null;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--depth":
+					depth = Integer.parseInt(args[++i]);
+					break;
+				case "--nodes":
+					maxNodes = Long.parseLong(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--batch":
+					batchSize = Integer.parseInt(args[++i]);
+					break;
+				case "--out":
+					outFile = args[++i];
+					break;
+				default:
+					file = args[i];
+			}
+		}
+		if (file == null) {
+			throw new IllegalArgumentException("Usage: bulk [--depth N] [--nodes N] [--threads N] [--batch N] [--out file] file");
+		}
+
+		BulkAnalysis analysis = new BulkAnalysis(threads, new SearchLimits(depth).withMaxNodes(maxNodes), batchSize);
+		long start = System.nanoTime(), count;
+
+		try (Stream<String> lines = Files.lines(Paths.get(file), StandardCharsets.UTF_8);
+			 Writer out = new BufferedWriter(outFile == null
+					 ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+					 : Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8))) {
+			Stream<Position> positions = lines
+					.map(String::trim)
+					.filter(line -> !line.isEmpty() && !line.startsWith("#"))
+					.map(line -> new Position(line.split("\\s+")[0]));
+
+			count = analysis.analyze(positions, batch -> {
+				try {
+					for (Tuple<Position, SearchResult> entry : batch) {
+						write(out, entry.getKey(), entry.getVal());
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+
+		// Throughput per core is what tells us if the threads are paying for themselves
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.err.printf("%d positions in %.1f s, %.1f positions/s, %.1f positions/s per thread%n",
+				count, seconds, count / seconds, count / seconds / threads);
+	}
+
+    /**
+     * Writes one result as a line.
+     *
+     * @param out - Where to write.
+     * @param position - The position searched.
+     * @param result - What the search found.
+     */
+	private static void write(Writer out, Position position, SearchResult result) throws IOException {
+		out.write(position.toString());
+		out.write(' ');
+		out.write(result.getMove() == null ? "-" : result.getMove().toNotation());
+		out.write(" " + result.getScore() + " " + result.getDepth() + " " + result.getNodes() + "\n");
+	}
+}
@@ -0,0 +1,307 @@
+package com.company;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the root of a search across SearchWorker processes.
+ * Each worker connection takes the next unscored root move as soon as it's free,
+ * so faster workers end up with more moves. Once every move is handed out,
+ * free workers take copies of moves still being scored elsewhere, and the first answer wins.
+ * The search ends as soon as every move has an answer, closing the connections of workers still on copies.
+ * A worker that fails or stops answering is dropped and its move handed to another;
+ * if every worker is gone, the coordinator scores what's left itself.
+ */
+public class DistributedSearch {
+
+	private final List<InetSocketAddress> workers;
+	private final int timeoutMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param workers - Where the workers are listening.
+     * @param timeoutMillis - How long to wait for a single answer before giving up on a worker.
+     */
+	public DistributedSearch(List<InetSocketAddress> workers, int timeoutMillis) {
+		this.workers = workers;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+    /**
+     * Finds the best move, the same as a local search to the same depth would.
+     *
+     * @param position - The position to search.
+     * @param depth - How deep to search.
+     * @return - The best move and its score.
+     */
+	public SearchResult search(Position position, int depth) throws InterruptedException {
+		long start = System.nanoTime();
+		ArrayList<Move> moves = position.getLegalMoves();
+		Split split = new Split(moves.size());
+
+		// One thread per worker, each pulling moves until none are left
+		split.drivers = workers.size();
+		for (InetSocketAddress worker : workers) {
+			Thread thread = new Thread(() -> drive(worker, position, depth, split), "search-coordinator-" + worker);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		// Stop as soon as every move has an answer, rather than waiting on workers still scoring copies
+		split.await();
+		split.closeSockets();
+
+		// Score anything the workers didn't, on a pool of our own
+		if (!split.isFinished()) {
+			ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+			try {
+				int index;
+				while ((index = split.next()) >= 0) {
+					int i = index;
+					Tuple<Integer, Long> scored = pool.invoke(ForkJoinTask.adapt(() -> AITask.scoreRootMove(
+							position.getBoard(), position.getPlayer(), moves.get(i), depth)));
+					split.done(i, scored.getKey(), scored.getVal());
+				}
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		return split.best(moves, depth, System.nanoTime() - start);
+	}
+
+    /**
+     * Feeds moves to one worker until there are none left or the worker fails.
+     *
+     * @param worker - The worker's address.
+     * @param position - The root position.
+     * @param depth - How deep to search.
+     * @param split - The moves being shared out.
+     */
+	private void drive(InetSocketAddress worker, Position position, int depth, Split split) {
+		byte[] bytes = position.toBytes();
+		int index = -1;
+
+		try (Socket socket = new Socket()) {
+			if (!split.register(socket)) {
+				return;
+			}
+			socket.connect(worker, timeoutMillis);
+			socket.setSoTimeout(timeoutMillis);
+			socket.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+			while ((index = split.next()) >= 0) {
+				out.writeByte(bytes.length);
+				out.write(bytes);
+				out.writeInt(depth);
+				out.writeInt(index);
+				out.flush();
+
+				int score = in.readInt();
+				long nodes = in.readLong();
+				split.done(index, score, nodes);
+				index = -1;
+			}
+		} catch (IOException e) {
+			// Let someone else have the move
+			if (index >= 0) {
+				split.retry(index);
+			}
+		} finally {
+			split.driverDone();
+		}
+	}
+
+	/**
+	 * The root moves and which of them have been scored.
+	 * Shared by every worker's thread.
+	 */
+	private static class Split {
+
+		private final int[] scores;
+		private final boolean[] done;
+		private final int[] inFlight;
+		private int nextFresh;
+		private int remaining;
+		private long nodes = 1;
+
+		// Worker threads still running, and their connections
+		private int drivers;
+		private final List<Socket> sockets = new ArrayList<>();
+		private boolean closed;
+
+		private Split(int size) {
+			this.scores = new int[size];
+			this.done = new boolean[size];
+			this.inFlight = new int[size];
+			this.remaining = size;
+		}
+
+        /**
+         * Picks a move to score.
+         * Fresh moves go first, then copies of the unscored move with the fewest workers on it.
+         *
+         * @return - The move's index, or -1 if every move has been scored.
+         */
+		private synchronized int next() {
+			if (remaining == 0) {
+				return -1;
+			}
+
+			if (nextFresh < scores.length) {
+				inFlight[nextFresh]++;
+				return nextFresh++;
+			}
+
+			int pick = -1;
+			for (int i = 0; i < scores.length; i++) {
+				if (!done[i] && (pick < 0 || inFlight[i] < inFlight[pick])) {
+					pick = i;
+				}
+			}
+			inFlight[pick]++;
+			return pick;
+		}
+
+		private synchronized void done(int index, int score, long subtreeNodes) {
+			inFlight[index]--;
+			nodes += subtreeNodes;
+			if (!done[index]) {
+				done[index] = true;
+				scores[index] = score;
+				remaining--;
+				if (remaining == 0) {
+					notifyAll();
+				}
+			}
+		}
+
+		private synchronized void retry(int index) {
+			inFlight[index]--;
+		}
+
+		private synchronized boolean isFinished() {
+			return remaining == 0;
+		}
+
+		private synchronized void driverDone() {
+			drivers--;
+			notifyAll();
+		}
+
+        /**
+         * Waits until every move is scored, or every worker is gone.
+         */
+		private synchronized void await() throws InterruptedException {
+			while (remaining > 0 && drivers > 0) {
+				wait();
+			}
+		}
+
+        /**
+         * Keeps a worker's connection, so it can be closed once the search is over.
+         *
+         * @param socket - The connection.
+         * @return - False if the search is already over, and the connection shouldn't be used.
+         */
+		private synchronized boolean register(Socket socket) {
+			if (closed) {
+				return false;
+			}
+			sockets.add(socket);
+			return true;
+		}
+
+        /**
+         * Closes every worker connection, ending any copies still being scored.
+         */
+		private synchronized void closeSockets() {
+			closed = true;
+			for (Socket socket : sockets) {
+				try {
+					socket.close();
+				} catch (IOException e) {
+					// Already gone
+				}
+			}
+		}
+
+        /**
+         * Picks a random move among the highest scoring, as the root task does.
+         *
+         * @param moves - The root moves.
+         * @param depth - How deep the search went.
+         * @param nanos - How long it took.
+         * @return - The result.
+         */
+		private synchronized SearchResult best(ArrayList<Move> moves, int depth, long nanos) {
+			if (moves.isEmpty()) {
+				return new SearchResult(null, 0, depth, nodes, nanos);
+			}
+
+			List<Integer> bestMoves = new ArrayList<>();
+			int netScore = Integer.MIN_VALUE;
+			for (int i = 0; i < scores.length; i++) {
+				if (scores[i] > netScore) {
+					netScore = scores[i];
+					bestMoves.clear();
+					bestMoves.add(i);
+				} else if (scores[i] == netScore) {
+					bestMoves.add(i);
+				}
+			}
+
+			Move move = moves.get(bestMoves.get(ThreadLocalRandom.current().nextInt(bestMoves.size())));
+			return new SearchResult(move, netScore, depth, nodes, nanos);
+		}
+	}
+
+    /**
+     * Runs a distributed search from the command line.
+     * Usage: distsearch --workers host:port,host:port [--depth N] [--timeout ms] [position]
+     *
+     * @param args - The command line arguments, after 'distsearch'.
+     */
+	public static void run(String[] args) throws InterruptedException {
+		List<InetSocketAddress> workers = new ArrayList<>();
+		int depth = 4, timeoutMillis = 60_000;
+		Position position = new Position(new Board(8, 8), SqState.BLACK);
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--workers":
+					for (String address : args[++i].split(",")) {
+						String[] parts = address.split(":");
+						workers.add(new InetSocketAddress(parts[0], Integer.parseInt(parts[1])));
+					}
+					break;
+				case "--depth":
+					depth = Integer.parseInt(args[++i]);
+					break;
+				case "--timeout":
+					timeoutMillis = Integer.parseInt(args[++i]);
+					break;
+				default:
+					position = new Position(args[i]);
+			}
+		}
+
+		SearchResult result = new DistributedSearch(workers, timeoutMillis).search(position, depth);
+		System.out.println("Best move: " + result.getMove());
+		System.out.println("Score " + result.getScore() + ", " + result.getNodes() + " nodes in " +
+				result.getNanos() / 1_000_000 + " ms over " + workers.size() + " worker(s)");
+	}
+}
@@ -0,0 +1,336 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The checkers engine, without any console input or output.
+ * An engine holds no game state of its own, so a single one can be shared
+ * by any number of games and called from any number of threads at once.
+ * Each search runs on the engine's pool.
+ */
+public class Engine implements AutoCloseable {
+
+	// Stops searches that run out of time
+	private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "search-timer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ForkJoinPool pool;
+	private volatile SearchRecorder recorder;
+
+    /**
+     * Constructor.
+     *
+     * @param threads - How many threads searches are run with.
+     */
+	public Engine(int threads) {
+		this.pool = new ForkJoinPool(threads);
+	}
+
+    /**
+     * Getter for the thread count.
+     *
+     * @return - How many threads searches are run with.
+     */
+	public int getThreads() {
+		return pool.getParallelism();
+	}
+
+    /**
+     * Setter for 'recorder' field.
+     *
+     * @param recorder - Where to record every position searched from now on, or null to stop recording.
+     */
+	public void setRecorder(SearchRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+    /**
+     * Creates a set of stats tied to this engine's pool.
+     *
+     * @return - Empty stats to pass to 'search'.
+     */
+	public SearchStats newStats() {
+		return new SearchStats(pool);
+	}
+
+    /**
+     * Finds the best move for the player to move.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     * @return - The best move and its score, the move being null if there are no legal moves.
+     */
+	public SearchResult search(Position position, SearchLimits limits) {
+		return search(position, limits, null);
+	}
+
+    /**
+     * Finds the best move for the player to move, counting the work done.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     * @param stats - Where to count the work done, or null to not count it.
+     * @return - The best move and its score, the move being null if there are no legal moves.
+     */
+	public SearchResult search(Position position, SearchLimits limits, SearchStats stats) {
+		return search(position, limits, stats, true);
+	}
+
+    /**
+     * Finds the best move for the player to move, leaving it out of the recording if asked to.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     * @param stats - Where to count the work done, or null to not count it.
+     * @param record - Whether to record the search, false for searches that aren't the game's own.
+     * @return - The best move and its score, the move being null if there are no legal moves.
+     */
+	SearchResult search(Position position, SearchLimits limits, SearchStats stats, boolean record) {
+		// Only a deepening search can stop on time or nodes
+		if (limits.getTimeMillis() > 0 || limits.getMaxNodes() > 0) {
+			return searchAsync(position, limits, null, stats, record).getFuture().join();
+		}
+		if (record) {
+			record(position, limits);
+		}
+
+		long start = System.nanoTime();
+		SearchEvent event = SearchEvent.start();
+
+		AITask root = new AITask(position.getBoard(), position.getPlayer(), 0, limits.getDepth(), stats, null,
+				null, limits.getSeed());
+		pool.invoke(root);
+		SearchResult result = toResult(position, root, limits.getDepth(), root.getNodes(), start);
+
+		if (event != null) {
+			commit(event, position, result);
+		}
+
+		return result;
+	}
+
+    /**
+     * Finds the best few moves for the player to move, each with its own score and line.
+     * Every root move is scored in full, in parallel, sharing one table,
+     * so a board reached from more than one root move is only searched once.
+     * Ties are broken by the order the moves were generated in.
+     *
+     * @param position - The position to analyse.
+     * @param limits - How deep to search, only the depth is used.
+     * @param lines - How many of the best moves to return.
+     * @param table - Where to share subtree results, may be kept between analyses of the same position.
+     * @return - Up to 'lines' lines, best first, empty if there are no legal moves.
+     */
+	public List<AnalysisLine> analyze(Position position, SearchLimits limits, int lines, TranspositionTable table) {
+		ArrayList<Move> allMoves = position.getLegalMoves();
+		List<ForkJoinTask<AITask>> tasks = new ArrayList<>(allMoves.size());
+		for (Move move : allMoves) {
+			tasks.add(ForkJoinTask.adapt(() -> AITask.scoreRootMove(position.getBoard(), position.getPlayer(),
+					move, limits.getDepth(), null, table)));
+		}
+
+		// Score the root moves side by side
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+		List<AnalysisLine> ranked = new ArrayList<>(tasks.size());
+		for (ForkJoinTask<AITask> task : tasks) {
+			AITask root = task.join();
+			ranked.add(new AnalysisLine(root.getMove(), root.getScore(), root.getPv()));
+		}
+
+		ranked.sort(Comparator.comparingInt(AnalysisLine::getScore).reversed());
+		return ranked.subList(0, Math.min(lines, ranked.size()));
+	}
+
+    /**
+     * Starts a search in the background.
+     * The search deepens one level at a time up to the depth limit,
+     * reporting the best move after each level, and can be stopped at any point.
+     * A stopped search, or one out of time or nodes, completes with the move from the deepest level it finished.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     * @param listener - What to tell about each level finished, or null.
+     * @return - The running search.
+     */
+	public SearchHandle searchAsync(Position position, SearchLimits limits, SearchProgress listener) {
+		return searchAsync(position, limits, listener, null);
+	}
+
+    /**
+     * Starts a search in the background, counting the work done.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     * @param listener - What to tell about each level finished, or null.
+     * @param stats - Where to count the work done, or null to not count it.
+     * @return - The running search.
+     */
+	public SearchHandle searchAsync(Position position, SearchLimits limits, SearchProgress listener, SearchStats stats) {
+		return searchAsync(position, limits, listener, stats, true);
+	}
+
+    /**
+     * Starts a search in the background, leaving it out of the recording if asked to.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     * @param listener - What to tell about each level finished, or null.
+     * @param stats - Where to count the work done, or null to not count it.
+     * @param record - Whether to record the search, false for searches that aren't the game's own.
+     * @return - The running search.
+     */
+	SearchHandle searchAsync(Position position, SearchLimits limits, SearchProgress listener, SearchStats stats,
+							 boolean record) {
+		if (record) {
+			record(position, limits);
+		}
+		SearchControl control = new SearchControl(limits.getMaxNodes());
+		CompletableFuture<SearchResult> future = new CompletableFuture<>();
+		SearchHandle handle = new SearchHandle(future, control);
+
+		// Stop on time
+		if (limits.getTimeMillis() > 0) {
+			ScheduledFuture<?> timeout = TIMER.schedule(control::stop, limits.getTimeMillis(), TimeUnit.MILLISECONDS);
+			future.whenComplete((result, error) -> timeout.cancel(false));
+		}
+
+		pool.execute(() -> {
+			try {
+				future.complete(deepen(position, limits, listener, stats, control));
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+
+		return handle;
+	}
+
+    /**
+     * Searches one level deeper at a time until the depth limit or until stopped.
+     * Runs on one of the pool's threads.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     * @param listener - What to tell about each level finished, or null.
+     * @param stats - Where to count the work done, or null.
+     * @param control - Stops the search.
+     * @return - The result of the deepest level finished.
+     */
+	private SearchResult deepen(Position position, SearchLimits limits, SearchProgress listener,
+								SearchStats stats, SearchControl control) {
+		long start = System.nanoTime();
+		SearchEvent event = SearchEvent.start();
+		SearchResult best = null;
+		long nodes = 0;
+
+		for (int depth = 0; depth <= limits.getDepth(); depth++) {
+
+			// The first level is always finished, so there's always a move to return
+			AITask root = new AITask(position.getBoard(), position.getPlayer(), 0, depth, stats,
+					depth == 0 ? null : control, null, limits.getSeed());
+			root.invoke();
+			nodes += root.getNodes();
+
+			if (root.isStopped()) {
+				break;
+			}
+
+			best = toResult(position, root, depth, nodes, start);
+			if (listener != null) {
+				listener.update(best);
+			}
+
+			if (control.isStopped()) {
+				break;
+			}
+		}
+
+		// Count the work of the unfinished level as well
+		best = new SearchResult(best.getMove(), best.getScore(), best.getDepth(), nodes, System.nanoTime() - start);
+
+		if (event != null) {
+			commit(event, position, best);
+		}
+
+		return best;
+	}
+
+    /**
+     * Records a search, if recording.
+     *
+     * @param position - The position to search.
+     * @param limits - How much work to do.
+     */
+	private void record(Position position, SearchLimits limits) {
+		SearchRecorder current = recorder;
+		if (current != null) {
+			current.record(position, limits);
+		}
+	}
+
+    /**
+     * Collects the result of a finished root task.
+     *
+     * @param position - The position searched.
+     * @param root - The finished root task.
+     * @param depth - How deep it searched.
+     * @param nodes - How many boards were searched in total.
+     * @param start - When the search started, from 'System.nanoTime'.
+     * @return - The result.
+     */
+	private SearchResult toResult(Position position, AITask root, int depth, long nodes, long start) {
+		// It shouldn't be null, but set default behavior just in case
+		Move move = root.getMove();
+		if (move == null) {
+			ArrayList<Move> allMoves = position.getLegalMoves();
+			if (!allMoves.isEmpty()) {
+				move = allMoves.get(ThreadLocalRandom.current().nextInt(allMoves.size()));
+			}
+		}
+
+		return new SearchResult(move, root.getScore(), depth, nodes, System.nanoTime() - start);
+	}
+
+    /**
+     * Fills in and records a search event, only building the payload if it passes the recording's threshold.
+     *
+     * @param event - The started event.
+     * @param position - The position searched.
+     * @param result - What the search found.
+     */
+	private void commit(SearchEvent event, Position position, SearchResult result) {
+		event.end();
+		if (!event.shouldCommit()) {
+			return;
+		}
+
+		event.position = position.toString();
+		event.depth = result.getDepth();
+		event.nodes = result.getNodes();
+		event.threads = getThreads();
+		event.commit();
+	}
+
+    /**
+     * Shuts down the engine's pool.
+     * Searches already running are finished first.
+     */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+}
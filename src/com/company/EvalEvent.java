@@ -0,0 +1,45 @@
+package com.company;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * JFR event for a sample of the calls to 'Board.getScore'.
+ * Disabled by default, and sampled at the same rate as MoveGenEvent.
+ */
+@Name("com.company.Eval")
+@Label("Evaluation")
+@Category({"Checkers", "Board"})
+@Description("A sampled call to Board.getScore")
+@Enabled(false)
+public class EvalEvent extends jdk.jfr.Event {
+
+	private static final EventType TYPE = EventType.getEventType(EvalEvent.class);
+
+	@Label("Player")
+	String player;
+
+	@Label("Score")
+	int score;
+
+    /**
+     * Starts an event for this call if the event is enabled and the call is sampled.
+     *
+     * @return - The started event, or null if this call isn't recorded.
+     */
+	static EvalEvent sample() {
+		if (!TYPE.isEnabled() || ThreadLocalRandom.current().nextInt(MoveGenEvent.SAMPLE_RATE) != 0) {
+			return null;
+		}
+
+		EvalEvent event = new EvalEvent();
+		event.begin();
+		return event;
+	}
+}
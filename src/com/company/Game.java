@@ -1,15 +1,20 @@
 package com.company;
 
-import java.util.ArrayList;
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
-import java.util.concurrent.ForkJoinPool;
 
+/**
+ * The console front end.
+ * Handles all input and output, and leaves the playing to the Engine.
+ */
 public class Game {
 
 	// Thread vars
 	private int NUM_THREADS;
-	private ForkJoinPool pool;
+	private Engine engine;
+	private SearchRecorder recorder;
 
 	// How deep to search
 	private int NUM_AI_ITERS;
@@ -19,10 +24,15 @@ public class Game {
 
     // Game vars
     private int mode;
-	private SqState currentPlayer;
-	private Board board;
+	private Position position;
+
+	// Where the moves go
+	private GameOutput output;
+
+	// Thinking on the player's turn
+	private Ponderer ponderer;
+	private SearchResult pondered;
 	private Scanner scanner = new Scanner(System.in);
-	private Random rand = new Random(System.currentTimeMillis());
 
     /**
      * Constructor.
@@ -31,8 +41,7 @@ public class Game {
      */
 	public Game() {
 		int rows = 8, cols = 8;
-		this.currentPlayer = SqState.BLACK;
-		this.board = new Board(rows, cols);
+		this.position = new Position(new Board(rows, cols), SqState.BLACK);
 	}
 
     /**
@@ -40,7 +49,7 @@ public class Game {
      * Also contains the main game loop, and ends the game.
      *
      */
-	public void initGame() {
+	public void initGame() throws IOException {
 
 		// Set number of threads
 		int numProc = Runtime.getRuntime().availableProcessors();
@@ -48,8 +57,12 @@ public class Game {
 		NUM_THREADS = scanner.nextInt();
 		scanner.nextLine();
 
-		// Create thread pool
-		pool = new ForkJoinPool(NUM_THREADS);
+		// Create the engine and its thread pool
+		engine = new Engine(NUM_THREADS);
+
+		// Record every search for replaying, if asked to
+		recorder = SearchRecorder.fromProperty();
+		engine.setRecorder(recorder);
 
 		// Set search depth
 		System.out.println("How deep should the AI search? ");
@@ -66,13 +79,44 @@ public class Game {
         mode = scanner.nextInt();
         scanner.nextLine();
 
+        // Let the computer think during the player's turn?
+        if (mode == 1) {
+            System.out.println("Enter 1 to let the computer think during your turn, 0 otherwise. ");
+            if (scanner.nextInt() == 1) {
+                ponderer = new Ponderer(engine, new SearchLimits(NUM_AI_ITERS));
+            }
+            scanner.nextLine();
+            output = new TextOutput(System.out, true);
+        } else {
+
+            // Show every move, or leave the terminal out of the time taken?
+            System.out.println("Enter 0 for no output, 1 to show every move, 2 to log the moves to a file. ");
+            int outputMode = scanner.nextInt();
+            scanner.nextLine();
+            if (outputMode == 2) {
+                System.out.println("Enter the log file: ");
+                output = new GameLog(Paths.get(scanner.nextLine().trim()));
+            } else {
+                output = outputMode == 1 ? new TextOutput(System.out, false) : GameOutput.QUIET;
+            }
+        }
+
         System.out.println();
 
 		// Benchmark start
 		long start, end, result;
 		start = System.currentTimeMillis();
 
-		gameLoop();
+		try {
+			gameLoop();
+		} finally {
+			if (ponderer != null) {
+				ponderer.stop();
+			}
+			engine.close();
+			closeRecorder();
+			output.close();
+		}
 
 		// Benchmark end
 		end = System.currentTimeMillis();
@@ -82,30 +126,47 @@ public class Game {
 
         // Game over!
 		System.out.println("Game over!");
-		System.out.println(currentPlayer.getOpposite() + " won!");
+		System.out.println(position.getPlayer().getOpposite() + " won!");
+	}
+
+    /**
+     * Finishes writing the recorded searches, if recording.
+     */
+	private void closeRecorder() {
+		if (recorder == null) {
+			return;
+		}
+
+		try {
+			recorder.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
     /**
      * The main game loop.
      * Handles all things related to turn order, AI, printing the game, and ending the game.
      */
-	private void gameLoop() {
+	private void gameLoop() throws IOException {
 		boolean gameOver = false;
-		ArrayList<Move> moves;
 		Move move;
 
 		// Print board
-		board.printBoard();
+		output.start(position);
 
 		while (!gameOver) {
-			System.out.println(currentPlayer + "'s turn");
+			output.note(position.getPlayer() + "'s turn");
 
             if (mode == 1) {
                 // Player vs computer
 
-                if (currentPlayer == SqState.BLACK) {
+                if (position.getPlayer() == SqState.BLACK) {
 
-                    // The player's turn
+                    // The player's turn, while the computer thinks ahead
+                    if (ponderer != null) {
+                        ponderer.start(position);
+                    }
                     move = userSelectMove();
                 } else {
 
@@ -122,77 +183,62 @@ public class Game {
                 move = compAI();
             }
 
-			// Make the move
-			move.execute(board);
+			// Make the move and switch turns, unless we're in the middle of a jump chain
+			position = position.afterMove(move);
 
-			// Switch turns
-			if (currentPlayer == SqState.BLACK) {
-				currentPlayer = SqState.WHITE;
-			} else {
-				currentPlayer = SqState.BLACK;
+			// Keep the computer's thinking if it guessed this position
+			if (ponderer != null && move.getPlayer() == SqState.BLACK) {
+				long start = System.currentTimeMillis();
+				pondered = ponderer.finish(position);
+				if (pondered != null) {
+					output.note("Computer already searched this position, finished in " +
+							(System.currentTimeMillis() - start) + " ms");
+				}
 			}
 
-			// Find all legal moves
-			moves = board.getLegalMoves(currentPlayer);
-
 			// Check win condition
-			if (moves.isEmpty()) {
+			if (position.getLegalMoves().isEmpty()) {
 				gameOver = true;
-			} else if (move.isJumping()) {
-
-				// If we're in the middle of a jump chain, switch back
-				if (currentPlayer == SqState.BLACK) {
-					currentPlayer = SqState.WHITE;
-				} else {
-					currentPlayer = SqState.BLACK;
-				}
 			}
 
 			// Print board
-			move.printMove();
-			board.printBoard();
+			output.moved(move, position);
 		}
 	}
 
 	/**
-	 * Finds the best move for the current board based on a few heuristics.
+	 * Asks the engine for the best move for the current board.
 	 * Heuristics are detailed in the Board function 'getScore'.
 	 *
 	 * @return - The move that leads to the highest point total.
 	 */
-	private Move compAI() {
+	private Move compAI() throws IOException {
+		// Use the search done during the player's turn
+		if (pondered != null) {
+			Move bestMove = pondered.getMove();
+			pondered = null;
+			return bestMove;
+		}
+
 		Move bestMove = null;
         int average = 0;
+        SearchLimits limits = new SearchLimits(NUM_AI_ITERS);
+        SearchStats stats = engine.newStats();
 
         // Search for best move repeatedly, for benchmarking purposes
         for (int i = 0; i < NUM_REPEATS; i++) {
-            // Benchmark start
-            long start, end, result;
-            start = System.currentTimeMillis();
-
-            // Start parallelism
-            AITask root = new AITask(board, currentPlayer, 0, NUM_AI_ITERS);
-            pool.invoke(root);
-
-            // Benchmark end
-            end = System.currentTimeMillis();
-            result = end - start;
-            average += result;
+            // Search, with the engine timing it, only recording the move once however many repeats there are
+            SearchResult result = engine.search(position, limits, stats, i == 0);
+            average += result.getNanos() / 1_000_000;
 
             // Select the best move
-            bestMove = root.getMove();
+            bestMove = result.getMove();
         }
 
         average /= NUM_REPEATS;
 
-        System.out.println("Average time taken with " + NUM_THREADS + " thread(s) and " + NUM_REPEATS + " repeat(s): " + average);
-
-		// It shouldn't return null, but set default behavior just in case
-		if (bestMove == null) {
-			ArrayList<Move> allMoves = board.getLegalMoves(currentPlayer);
-			int r = rand.nextInt(allMoves.size());
-			bestMove = allMoves.get(r);
-		}
+        output.note("Average time taken with " + NUM_THREADS + " thread(s) and " + NUM_REPEATS + " repeat(s): " + average);
+        output.note("Search stats: " + stats.snapshot());
 
 		return bestMove;
 	}
@@ -231,12 +277,15 @@ public class Game {
 			moveDest[1] = dest.charAt(1) - '1';
 
 			// Create and evaluate the move
-			move = new Move(moveSource, moveDest, board, currentPlayer);
-
-            // Show the board if the move isn't legal
-			if (!move.isLegal(false)) {
-				board.printBoard();
-				System.out.println(currentPlayer + "'s turn");
+			move = new Move(moveSource.clone(), moveDest.clone(), position.getBoard(), position.getPlayer());
+			MoveError error = move.checkLegal();
+
+            // Show why and the board if the move isn't legal
+			if (error != null) {
+				System.out.println(error.getMessage());
+				System.out.println();
+				position.getBoard().printBoard();
+				System.out.println(position.getPlayer() + "'s turn");
 				tryAgain = true;
 			}
 		} while (tryAgain);
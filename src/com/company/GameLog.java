@@ -0,0 +1,150 @@
+package com.company;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps a compact binary record of games, for replaying later.
+ * Each game is a marker byte, the starting position as written by 'Position.toBytes',
+ * then two bytes per move, the source and destination as 'row * cols + col', and an end byte.
+ * Only the moves are kept, since replaying them from the start gives back every position,
+ * so an 8x8 game takes 17 bytes plus two per move.
+ * Games are added to the end of the file, so one file can hold many runs.
+ */
+public class GameLog implements GameOutput {
+
+	// Starts a game
+	private static final int GAME = 'G';
+
+	// Ends a game, never a square
+	private static final int END = 0xff;
+
+	private final DataOutputStream out;
+	private int cols;
+
+    /**
+     * Constructor.
+     * Adds to the end of the file if it's already there.
+     *
+     * @param file - The log file.
+     */
+	public GameLog(Path file) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+	}
+
+	@Override
+	public void start(Position position) throws IOException {
+		cols = position.getBoard().getCols();
+		out.write(GAME);
+		out.write(position.toBytes());
+	}
+
+	@Override
+	public void moved(Move move, Position position) throws IOException {
+		int[] source = move.getSource(), dest = move.getDest();
+		out.write(source[0] * cols + source[1]);
+		out.write(dest[0] * cols + dest[1]);
+	}
+
+	@Override
+	public void note(String text) {
+		// Only the moves are kept
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.write(END);
+		out.close();
+	}
+
+    /**
+     * Replays every game in a log, checking each move is legal.
+     *
+     * @param file - The log file.
+     * @param output - Where to send the replayed games.
+     * @return - How many games were replayed.
+     * @throws IOException - If the file can't be read, or holds a broken game or an illegal move.
+     */
+	public static int replay(Path file, GameOutput output) throws IOException {
+		int games = 0;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			int marker;
+			while ((marker = in.read()) != -1) {
+				if (marker != GAME) {
+					throw new IOException("Not a game log, or game " + (games + 1) + " is broken");
+				}
+
+				// The first byte of the position gives its size, and so its length
+				int first = in.readUnsignedByte();
+				int size = first & 0x7f;
+				byte[] bytes = new byte[1 + (size * size / 2 + 1) / 2];
+				bytes[0] = (byte) first;
+				in.readFully(bytes, 1, bytes.length - 1);
+				Position position = new Position(bytes);
+				output.start(position);
+
+				int from;
+				while ((from = in.readUnsignedByte()) != END) {
+					int to = in.readUnsignedByte();
+					Move move = new Move(new int[]{from / size, from % size}, new int[]{to / size, to % size},
+							position.getBoard(), position.getPlayer());
+					MoveError error = move.checkLegal();
+					if (error != null) {
+						throw new IOException("Game " + (games + 1) + " has an illegal move, " + move + ": " +
+								error.getMessage());
+					}
+
+					position = position.afterMove(move);
+					output.moved(move, position);
+				}
+
+				games++;
+			}
+		} catch (EOFException e) {
+			throw new IOException("Game " + (games + 1) + " was cut short", e);
+		}
+
+		return games;
+	}
+
+    /**
+     * Replays a game log from the command line.
+     * Usage: gamelog [--quiet] file
+     * Every game is drawn move by move unless quiet, where the moves are only checked.
+     *
+     * @param args - The command line arguments, after 'gamelog'.
+     */
+	public static void run(String[] args) throws IOException {
+		boolean quiet = false;
+		String file = null;
+
+		for (String arg : args) {
+			switch (arg) {
+				case "--quiet":
+					quiet = true;
+					break;
+				default:
+					file = arg;
+			}
+		}
+		if (file == null) {
+			throw new IllegalArgumentException("Usage: gamelog [--quiet] file");
+		}
+
+		int games;
+		try (GameOutput output = quiet ? GameOutput.QUIET : new TextOutput(System.out, false)) {
+			games = replay(Paths.get(file), output);
+		}
+		System.out.println(games + " game(s) replayed.");
+	}
+}
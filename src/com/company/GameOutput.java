@@ -0,0 +1,58 @@
+package com.company;
+
+import java.io.IOException;
+
+/**
+ * Where a game's progress goes.
+ * The game hands over the starting position, every move made, and notes such as search times,
+ * and the output decides what to show or keep.
+ */
+public interface GameOutput extends AutoCloseable {
+
+	// Shows and keeps nothing, for runs where only the time taken matters
+	GameOutput QUIET = new GameOutput() {
+		@Override
+		public void start(Position position) {
+		}
+
+		@Override
+		public void moved(Move move, Position position) {
+		}
+
+		@Override
+		public void note(String text) {
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+    /**
+     * Starts a game.
+     *
+     * @param position - The position the game starts from.
+     */
+	void start(Position position) throws IOException;
+
+    /**
+     * Reports a move.
+     *
+     * @param move - The move made.
+     * @param position - The position after the move.
+     */
+	void moved(Move move, Position position) throws IOException;
+
+    /**
+     * Reports something about the game that isn't a move, e.g. whose turn it is or how long a search took.
+     *
+     * @param text - One line of text.
+     */
+	void note(String text) throws IOException;
+
+    /**
+     * Finishes the game, writing out anything still held.
+     */
+	@Override
+	void close() throws IOException;
+}
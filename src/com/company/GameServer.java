@@ -0,0 +1,442 @@
+package com.company;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Serves player vs computer games over TCP, many at once.
+ * A single thread handles every connection through a selector,
+ * while the computer's searches are queued on a shared scheduler and report back to that thread.
+ * Each connection plays its own game, the player being black.
+ *
+ * The protocol is one command per line, each answered by one line:
+ *      NEW [depth]         - start a new game, answered with 'OK position'.
+ *                            The depth has to be at least 1, and is cut down to the server's maximum
+ *      MOVE source dest    - make a move, e.g. 'MOVE c2 d1', answered once the computer has replied
+ *                            with 'OK position moves...' or 'OVER winner position moves...'
+ *      BOARD               - answered with 'OK position'
+ *      QUIT                - close the connection
+ * Bad commands and illegal moves are answered with 'ERR reason'.
+ * If the computer's search fails the game is abandoned, answered with 'ERR Search failed, game abandoned',
+ * and a new game is started at the same depth.
+ * Positions are in the text form of Position, moves as 'c2-d1'.
+ */
+public class GameServer implements Runnable {
+
+	// Largest command accepted
+	private static final int MAX_LINE = 256;
+
+	// Most output queued for a connection before it stops being read
+	private static final int MAX_QUEUED = 64 * 1024;
+
+	private final SearchScheduler scheduler;
+	private final int defaultDepth;
+	private final int maxDepth;
+	private final long timeMillis;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+
+	// Work handed back to the selector thread by finished searches
+	private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor.
+     * Binds to the port straight away.
+     *
+     * @param scheduler - Runs the searches of every game.
+     * @param port - The port to listen on, or 0 for any free port.
+     * @param defaultDepth - How deep the computer searches unless a game asks otherwise.
+     * @param maxDepth - The deepest a game may ask for, so one game can't hold up a lane for long.
+     * @param timeMillis - How long the computer may take per move, or 0 for no limit.
+     */
+	public GameServer(SearchScheduler scheduler, int port, int defaultDepth, int maxDepth, long timeMillis)
+			throws IOException {
+		if (defaultDepth < 1 || maxDepth < defaultDepth) {
+			throw new IllegalArgumentException("Need 1 <= depth <= max depth: " + defaultDepth + ", " + maxDepth);
+		}
+		this.scheduler = scheduler;
+		this.defaultDepth = defaultDepth;
+		this.maxDepth = maxDepth;
+		this.timeMillis = timeMillis;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+
+		server.bind(new InetSocketAddress("localhost", port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+	}
+
+    /**
+     * Getter for the port.
+     *
+     * @return - The port the server is listening on.
+     */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+    /**
+     * The selector loop. Runs until the thread is interrupted or the server is closed.
+     */
+	@Override
+	public void run() {
+		try {
+			while (!Thread.currentThread().isInterrupted() && selector.isOpen()) {
+				selector.select();
+
+				// Searches that finished since the last select
+				Runnable completion;
+				while ((completion = completions.poll()) != null) {
+					completion.run();
+				}
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+
+					if (!key.isValid()) {
+						continue;
+					}
+
+					// A failed accept, e.g. out of file descriptors, mustn't close the listening socket
+					if (key.isAcceptable()) {
+						try {
+							accept();
+						} catch (IOException | RuntimeException e) {
+							System.err.println("Can't accept a connection: " + e);
+						}
+						continue;
+					}
+
+					Session session = (Session) key.attachment();
+					try {
+						if (key.isReadable()) {
+							session.read();
+						}
+						if (key.isValid() && key.isWritable()) {
+							session.write();
+						}
+					} catch (IOException | RuntimeException e) {
+						// Only drop the connection that failed
+						session.close();
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Server failed", e);
+		}
+	}
+
+    /**
+     * Stops the server and closes every connection.
+     */
+	public void close() throws IOException {
+		for (SelectionKey key : selector.keys()) {
+			key.channel().close();
+		}
+		selector.close();
+	}
+
+    /**
+     * Accepts a new connection and gives it its own game.
+     */
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+
+		try {
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			key.attach(new Session(key));
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * One connection and its game.
+	 * Only ever touched by the selector thread.
+	 */
+	private class Session {
+
+		private final SelectionKey key;
+		private final SocketChannel channel;
+		private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+		private final Queue<ByteBuffer> out = new ArrayDeque<>();
+		private int queued;
+
+		private Position position = new Position(new Board(8, 8), SqState.BLACK);
+		private int depth = defaultDepth;
+
+		// The key the scheduler charges this game's search time to
+		private Object game = new Object();
+		private boolean searching;
+
+		private Session(SelectionKey key) {
+			this.key = key;
+			this.channel = (SocketChannel) key.channel();
+		}
+
+        /**
+         * Reads whatever has arrived and handles every complete line.
+         */
+		private void read() throws IOException {
+			if (channel.read(in) < 0) {
+				close();
+				return;
+			}
+
+			in.flip();
+			int start = 0;
+			for (int i = in.position(); i < in.limit(); i++) {
+				if (in.get(i) == '\n') {
+					String line = new String(in.array(), start, i - start, StandardCharsets.US_ASCII).trim();
+					start = i + 1;
+					handle(line);
+					if (!channel.isOpen()) {
+						return;
+					}
+				}
+			}
+			in.position(start);
+			in.compact();
+
+			// A full buffer with no line in it will never become a command
+			if (!in.hasRemaining()) {
+				send("ERR Line too long");
+				in.clear();
+			}
+		}
+
+        /**
+         * Writes as much queued output as the socket will take.
+         */
+		private void write() throws IOException {
+			while (!out.isEmpty()) {
+				ByteBuffer buffer = out.peek();
+				queued -= channel.write(buffer);
+				if (buffer.hasRemaining()) {
+					break;
+				}
+				out.poll();
+			}
+			updateInterest();
+		}
+
+        /**
+         * Reads only while the client keeps up with the output, and writes while there's output.
+         * A client that sends commands without reading the answers is left unread until it catches up.
+         */
+		private void updateInterest() {
+			if (key.isValid()) {
+				key.interestOps((queued < MAX_QUEUED ? SelectionKey.OP_READ : 0) |
+						(out.isEmpty() ? 0 : SelectionKey.OP_WRITE));
+			}
+		}
+
+        /**
+         * Queues a line to send.
+         *
+         * @param line - The line, without its newline.
+         */
+		private void send(String line) {
+			byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+			out.add(ByteBuffer.wrap(bytes));
+			queued += bytes.length;
+			updateInterest();
+		}
+
+		private void close() throws IOException {
+			scheduler.release(game);
+			key.cancel();
+			channel.close();
+		}
+
+        /**
+         * Runs one command.
+         *
+         * @param line - The command.
+         */
+		private void handle(String line) throws IOException {
+			if (line.isEmpty()) {
+				return;
+			}
+			String[] words = line.split("\\s+");
+
+			if (searching) {
+				send("ERR Still thinking");
+				return;
+			}
+
+			switch (words[0].toUpperCase(Locale.ROOT)) {
+				case "NEW":
+					int asked;
+					try {
+						asked = words.length > 1 ? Integer.parseInt(words[1]) : defaultDepth;
+					} catch (NumberFormatException e) {
+						asked = 0;
+					}
+					if (asked < 1) {
+						send("ERR Bad depth: " + words[1]);
+						break;
+					}
+					depth = Math.min(asked, maxDepth);
+					position = new Position(new Board(8, 8), SqState.BLACK);
+					scheduler.release(game);
+					game = new Object();
+					send("OK " + position);
+					break;
+				case "BOARD":
+					send("OK " + position);
+					break;
+				case "MOVE":
+					if (words.length != 3 || words[1].length() != 2 || words[2].length() != 2) {
+						send("ERR Usage: MOVE source dest");
+					} else {
+						playerMove(words[1], words[2]);
+					}
+					break;
+				case "QUIT":
+					close();
+					break;
+				default:
+					send("ERR Unknown command: " + words[0]);
+			}
+		}
+
+        /**
+         * Makes the player's move, then lets the computer reply.
+         *
+         * @param source - The source square, e.g. "c2".
+         * @param dest - The destination square, e.g. "d1".
+         */
+		private void playerMove(String source, String dest) {
+			if (position.getPlayer() != SqState.BLACK || position.getLegalMoves().isEmpty()) {
+				send("ERR Game is over");
+				return;
+			}
+
+			Move move = new Move(
+					new int[]{source.charAt(0) - 'a', source.charAt(1) - '1'},
+					new int[]{dest.charAt(0) - 'a', dest.charAt(1) - '1'},
+					position.getBoard(), position.getPlayer());
+			MoveError error = move.checkLegal();
+			if (error != null) {
+				send("ERR " + error.getMessage());
+				return;
+			}
+
+			position = position.afterMove(move);
+			computerMoves(new StringBuilder());
+		}
+
+        /**
+         * Lets the computer move until it's the player's turn or the game is over,
+         * then answers the player.
+         * Searches run on the scheduler, and continue on the selector thread once done.
+         *
+         * @param played - The computer's moves so far this turn.
+         */
+		private void computerMoves(StringBuilder played) {
+			if (position.getLegalMoves().isEmpty()) {
+				send("OVER " + position.getPlayer().getOpposite() + " " + position + played);
+				return;
+			}
+			if (position.getPlayer() == SqState.BLACK) {
+				send("OK " + position + played);
+				return;
+			}
+
+			searching = true;
+			Position searched = position;
+			SearchLimits limits = new SearchLimits(depth).withTimeMillis(timeMillis);
+			scheduler.submit(game, searched, limits).whenComplete((result, error) -> {
+				completions.add(() -> {
+					searching = false;
+					if (!channel.isOpen()) {
+						return;
+					}
+					if (error != null) {
+						// Leave the player a game they can play, rather than one stuck on the computer's turn
+						position = new Position(new Board(8, 8), SqState.BLACK);
+						send("ERR Search failed, game abandoned");
+						return;
+					}
+
+					Move move = result.getMove();
+					played.append(' ').append(move.toNotation());
+					position = searched.afterMove(move);
+					computerMoves(played);
+				});
+				selector.wakeup();
+			});
+		}
+	}
+
+    /**
+     * Runs the server from the command line.
+     * Usage: server [--port N] [--depth N] [--max-depth N] [--time ms] [--game-budget ms] [--lanes N]
+     *               [--lane-threads N] [--min-depth N]
+     * By default there is a lane per processor, each with a single thread, and games have no budget.
+     *
+     * @param args - The command line arguments, after 'server'.
+     */
+	public static void run(String[] args) throws IOException {
+		int port = 7777, depth = 3, maxDepth = 8, minDepth = 1, laneThreads = 1;
+		int lanes = Runtime.getRuntime().availableProcessors();
+		long timeMillis = 0, gameBudgetMillis = 0;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--depth":
+					depth = Integer.parseInt(args[++i]);
+					break;
+				case "--max-depth":
+					maxDepth = Integer.parseInt(args[++i]);
+					break;
+				case "--time":
+					timeMillis = Long.parseLong(args[++i]);
+					break;
+				case "--lanes":
+					lanes = Integer.parseInt(args[++i]);
+					break;
+				case "--lane-threads":
+					laneThreads = Integer.parseInt(args[++i]);
+					break;
+				case "--game-budget":
+					gameBudgetMillis = Long.parseLong(args[++i]);
+					break;
+				case "--min-depth":
+					minDepth = Integer.parseInt(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		try (SearchScheduler scheduler = new SearchScheduler(lanes, laneThreads, minDepth, 1000, gameBudgetMillis)) {
+			GameServer server = new GameServer(scheduler, port, depth, Math.max(depth, maxDepth), timeMillis);
+			System.out.println("Listening on localhost:" + server.getPort());
+			server.run();
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.company;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for GameServer.
+ * Opens many connections at once, each playing random legal moves as fast as the server answers,
+ * and measures how long every move takes to be answered.
+ */
+public class LoadClient {
+
+	private final String host;
+	private final int port;
+	private final int depth;
+	private final LongAdder games = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param host - The server's host.
+     * @param port - The server's port.
+     * @param depth - How deep the server should search in each game.
+     */
+	public LoadClient(String host, int port, int depth) {
+		this.host = host;
+		this.port = port;
+		this.depth = depth;
+	}
+
+    /**
+     * Runs the sessions until the time is up.
+     *
+     * @param sessions - How many connections to play on at once.
+     * @param seconds - How long to run for.
+     * @return - Every move latency in nanoseconds, sorted.
+     */
+	public long[] run(int sessions, int seconds) throws Exception {
+		long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+		ExecutorService threads = Executors.newFixedThreadPool(sessions);
+		List<Future<long[]>> results = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < sessions; i++) {
+				long seed = i;
+				results.add(threads.submit(() -> session(new Random(seed), deadline)));
+			}
+
+			long[] all = new long[0];
+			for (Future<long[]> result : results) {
+				long[] latencies = result.get();
+				int size = all.length;
+				all = Arrays.copyOf(all, size + latencies.length);
+				System.arraycopy(latencies, 0, all, size, latencies.length);
+			}
+			Arrays.sort(all);
+			return all;
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+    /**
+     * Plays games on one connection until the deadline.
+     *
+     * @param rand - Chooses the moves.
+     * @param deadline - When to stop, from 'System.nanoTime'.
+     * @return - The latency of every move made.
+     */
+	private long[] session(Random rand, long deadline) throws IOException {
+		long[] latencies = new long[256];
+		int count = 0;
+
+		try (Socket socket = new Socket(host, port)) {
+			socket.setTcpNoDelay(true);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+			String reply = command(in, out, "NEW " + depth);
+			while (System.nanoTime() < deadline) {
+				String[] words = reply.split(" ");
+
+				// Start over once a game ends
+				if (words[0].equals("OVER")) {
+					games.increment();
+					reply = command(in, out, "NEW " + depth);
+					continue;
+				}
+				if (!words[0].equals("OK")) {
+					errors.increment();
+					reply = command(in, out, "NEW " + depth);
+					continue;
+				}
+
+				// Pick a random legal move for the position the server sent
+				ArrayList<Move> moves = new Position(words[1]).getLegalMoves();
+				Move move = moves.get(rand.nextInt(moves.size()));
+				int[] from = move.getSource(), to = move.getDest();
+				String text = "MOVE " + (char) (from[0] + 'a') + (char) (from[1] + '1') + " " +
+						(char) (to[0] + 'a') + (char) (to[1] + '1');
+
+				long start = System.nanoTime();
+				reply = command(in, out, text);
+				if (count == latencies.length) {
+					latencies = Arrays.copyOf(latencies, count * 2);
+				}
+				latencies[count++] = System.nanoTime() - start;
+			}
+
+			command(in, out, "QUIT");
+		}
+
+		return Arrays.copyOf(latencies, count);
+	}
+
+    /**
+     * Sends a command and waits for the answer.
+     *
+     * @param in - The connection's input.
+     * @param out - The connection's output.
+     * @param command - The command.
+     * @return - The answer, or an empty string if the connection closed.
+     */
+	private static String command(BufferedReader in, Writer out, String command) throws IOException {
+		out.write(command);
+		out.write('\n');
+		out.flush();
+
+		if (command.equals("QUIT")) {
+			return "";
+		}
+		String reply = in.readLine();
+		return reply == null ? "" : reply;
+	}
+
+    /**
+     * Runs the load generator from the command line.
+     * Usage: load [--host H] [--port N] [--sessions N] [--seconds N] [--depth N]
+     *
+     * @param args - The command line arguments, after 'load'.
+     */
+	public static void run(String[] args) throws Exception {
+		String host = "localhost";
+		int port = 7777, sessions = 100, seconds = 30, depth = 3;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--host":
+					host = args[++i];
+					break;
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--sessions":
+					sessions = Integer.parseInt(args[++i]);
+					break;
+				case "--seconds":
+					seconds = Integer.parseInt(args[++i]);
+					break;
+				case "--depth":
+					depth = Integer.parseInt(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		LoadClient client = new LoadClient(host, port, depth);
+		long[] latencies = client.run(sessions, seconds);
+
+		System.out.println(String.format(Locale.ROOT,
+				"%d sessions, %d moves (%.1f/s), %d games finished, %d errors",
+				sessions, latencies.length, latencies.length / (double) seconds,
+				client.games.sum(), client.errors.sum()));
+		System.out.println(String.format(Locale.ROOT,
+				"Move latency (ms): p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f",
+				percentile(latencies, 50) / 1e6, percentile(latencies, 90) / 1e6,
+				percentile(latencies, 99) / 1e6, percentile(latencies, 99.9) / 1e6,
+				percentile(latencies, 100) / 1e6));
+	}
+
+	private static long percentile(long[] sorted, double percent) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+}
@@ -1,10 +1,69 @@
 package com.company;
 
 import java.io.*;
+import java.util.Arrays;
 
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // Tools
+        if (args.length > 0 && args[0].equals("perft")) {
+            boolean passed = Perft.run(Arrays.copyOfRange(args, 1, args.length));
+            System.exit(passed ? 0 : 1);
+        }
+        if (args.length > 0 && args[0].equals("replay")) {
+            boolean passed = ReplayBenchmark.run(Arrays.copyOfRange(args, 1, args.length));
+            System.exit(passed ? 0 : 1);
+        }
+        if (args.length > 0 && args[0].equals("scaling")) {
+            ScalingBenchmark.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tournament")) {
+            Tournament.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("server")) {
+            GameServer.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("load")) {
+            LoadClient.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("worker")) {
+            SearchWorker.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("analyze")) {
+            Analysis.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("bulk")) {
+            BulkAnalysis.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("selfplay")) {
+            TrainingGenerator.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tune")) {
+            Tuner.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("pdn")) {
+            PdnImporter.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("gamelog")) {
+            GameLog.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("distsearch")) {
+            DistributedSearch.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         Game game = new Game();
         game.initGame();
     }
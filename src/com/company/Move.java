@@ -24,16 +24,80 @@ public class Move {
 		this.jumping = false;
 	}
 
+    /**
+     * Constructor.
+     * For moves already known to be legal, so 'checkLegal' doesn't need to be called before making them.
+     *
+     * @param source - Where the piece originates from.
+     * @param dest - Where the piece is moving.
+     * @param board - On what board the move is happening.
+     * @param player - Who's making the move.
+     * @param jumping - Whether the move is a jump.
+     */
+	Move(int[] source, int[] dest, Board board, SqState player, boolean jumping) {
+		this.source = source;
+		this.dest = dest;
+		this.board = board;
+		this.player = player;
+		this.jumping = jumping;
+	}
+
     /**
      * Prints out what this move is.
      * States the player moving, the source, and the destination.
      *
      */
 	public void printMove() {
-		String output = player + " moved: (" +
-				(char)(source[0] + 'a') + "," + (char)(source[1] + '1') + ") to (" +
-				(char)(dest[0] + 'a') + "," + (char)(dest[1] + '1') + ")";
-		System.out.println(output);
+		System.out.println(this);
+	}
+
+    /**
+     * Describes this move.
+     *
+     * @return - The player moving, the source, and the destination.
+     */
+	@Override
+	public String toString() {
+		return player + " moved: (" +
+				(char)(source[0] + 'a') + "," + (source[1] + 1) + ") to (" +
+				(char)(dest[0] + 'a') + "," + (dest[1] + 1) + ")";
+	}
+
+    /**
+     * Writes this move the short way, as its source and destination.
+     *
+     * @return - The move, e.g. "c2-d1", or "i10-j9" on bigger boards.
+     */
+	public String toNotation() {
+		return "" + (char) (source[0] + 'a') + (source[1] + 1) + '-' +
+				(char) (dest[0] + 'a') + (dest[1] + 1);
+	}
+
+    /**
+     * Getter for 'source' field.
+     *
+     * @return - Where the piece originates from, as row and col.
+     */
+	public int[] getSource() {
+		return source.clone();
+	}
+
+    /**
+     * Getter for 'dest' field.
+     *
+     * @return - Where the piece is moving, as row and col.
+     */
+	public int[] getDest() {
+		return dest.clone();
+	}
+
+    /**
+     * Getter for 'player' field.
+     *
+     * @return - Who's making the move.
+     */
+	public SqState getPlayer() {
+		return player;
 	}
 
     /**
@@ -46,6 +110,23 @@ public class Move {
 
     /**
      * Tests if this move is legal.
+     *
+     * @param suppressText - Whether or not to print out the failure message.
+     * @return - True if the move is legal, false if not.
+     */
+	public boolean isLegal(boolean suppressText) {
+		MoveError error = checkLegal();
+
+		if (error != null && !suppressText) {
+			System.out.println(error.getMessage());
+			System.out.println();
+		}
+
+		return error == null;
+	}
+
+    /**
+     * Finds out why this move is illegal, if it is.
      * A move can fail for 7 reasons:
      *      - the source isn't valid
      *      - the source isn't the player's piece
@@ -55,74 +136,45 @@ public class Move {
      *      - the destination is too far from the source
      *      - the move isn't a jump when one is possible
      *
-     * @param suppressText - Whether or not to print out failure messages.
-     * @return - True if the move is legal, false if not.
+     * @return - The first reason the move fails, or null if it's legal.
      */
-	public boolean isLegal(boolean suppressText) {
+	public MoveError checkLegal() {
 		// Make sure source is on the board
 		if (!board.isValidSquare(source[0], source[1])) {
-			if (!suppressText) {
-				System.out.println("Source not valid!");
-				System.out.println();
-			}
-			return false;
+			return MoveError.SOURCE_NOT_VALID;
 		}
 
 		// Make sure source is player's piece
 		if (!board.getSquare(source[0], source[1]).isSame(player)) {
-			if (!suppressText) {
-				System.out.println("That's not your piece!");
-				System.out.println();
-			}
-			return false;
+			return MoveError.NOT_YOUR_PIECE;
 		}
 
 		// Make sure dest is on the board
 		if (!board.isValidSquare(dest[0], dest[1])) {
-			if (!suppressText) {
-				System.out.println("Destination not valid!");
-				System.out.println();
-			}
-			return false;
+			return MoveError.DEST_NOT_VALID;
 		}
 
 		// Make sure a normal isn't moving backwards
 		if (!isValidKingMovement()) {
-			if (!suppressText) {
-				System.out.println("Only kings can move backwards!");
-				System.out.println();
-			}
-			return false;
+			return MoveError.BACKWARDS;
 		}
 
 		// Make sure dest is empty
 		if (!board.getSquare(dest[0], dest[1]).isEmpty()) {
-			if (!suppressText) {
-				System.out.println("Destination must be empty!");
-				System.out.println();
-			}
-			return false;
+			return MoveError.DEST_NOT_EMPTY;
 		}
 
 		// Make sure move is within range
 		if (!isSlide() && !isJump()) {
-			if (!suppressText) {
-				System.out.println("Move not in range!");
-				System.out.println();
-			}
-			return false;
+			return MoveError.OUT_OF_RANGE;
 		}
 
 		// Make sure a jump is taken if possible
 		if (mustJump() && !isJump()) {
-			if (!suppressText) {
-				System.out.println("You must make a jump if possible!");
-				System.out.println();
-			}
-			return false;
+			return MoveError.MUST_JUMP;
 		}
 
-		return true;
+		return null;
 	}
 
     /**
@@ -0,0 +1,25 @@
+package com.company;
+
+/**
+ * The reasons a move can be illegal, in the order 'Move.checkLegal' tests them.
+ */
+public enum MoveError {
+
+	SOURCE_NOT_VALID   ("Source not valid!"),
+	NOT_YOUR_PIECE     ("That's not your piece!"),
+	DEST_NOT_VALID     ("Destination not valid!"),
+	BACKWARDS          ("Only kings can move backwards!"),
+	DEST_NOT_EMPTY     ("Destination must be empty!"),
+	OUT_OF_RANGE       ("Move not in range!"),
+	MUST_JUMP          ("You must make a jump if possible!");
+
+	private String message;
+
+	MoveError (String message) {
+		this.message = message;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,50 @@
+package com.company;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * JFR event for a sample of the calls to 'Board.getLegalMoves'.
+ * Disabled by default. Only one in every 'checkers.jfr.sampleRate' calls (64 by default)
+ * is recorded, as there are millions of them per search.
+ */
+@Name("com.company.MoveGen")
+@Label("Move Generation")
+@Category({"Checkers", "Board"})
+@Description("A sampled call to Board.getLegalMoves")
+@Enabled(false)
+public class MoveGenEvent extends jdk.jfr.Event {
+
+	private static final EventType TYPE = EventType.getEventType(MoveGenEvent.class);
+
+	// A rate below 1 would make every sample throw, so it's treated as recording every call
+	static final int SAMPLE_RATE = Math.max(1, Integer.getInteger("checkers.jfr.sampleRate", 64));
+
+	@Label("Player")
+	String player;
+
+	@Label("Moves")
+	@Description("How many legal moves were found")
+	int moves;
+
+    /**
+     * Starts an event for this call if the event is enabled and the call is sampled.
+     *
+     * @return - The started event, or null if this call isn't recorded.
+     */
+	static MoveGenEvent sample() {
+		if (!TYPE.isEnabled() || ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+			return null;
+		}
+
+		MoveGenEvent event = new MoveGenEvent();
+		event.begin();
+		return event;
+	}
+}
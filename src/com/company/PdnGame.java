@@ -0,0 +1,292 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read from PDN (Portable Draughts Notation).
+ * Squares are numbered 1 to 32 from black's side, four to a row, black starting on 1 to 12 and moving first.
+ * Square n is on row (n - 1) / 4, and the (n - 1) % 4'th valid square of that row from the left.
+ * Moves are written 'from-to' for slides and 'from x to' for jumps, with every landing square of a multiple
+ * jump listed, e.g. '9x18x27', or only the first and last.
+ *
+ * Replaying follows the PDN's own turn order, where the turn passes after every move,
+ * rather than the engine's extra move after a jump. Each step is checked with 'Move.checkLegal'.
+ */
+public class PdnGame {
+
+	// Results in PDN form, from the side that moves first
+	public static final int BLACK_WINS = 0;
+	public static final int WHITE_WINS = 1;
+	public static final int DRAW = 2;
+	public static final int UNKNOWN = 3;
+
+	private final Map<String, String> tags = new HashMap<>();
+	private final List<String> moves = new ArrayList<>();
+	private int result = UNKNOWN;
+
+    /**
+     * Constructor.
+     * Reads the tags and the move text, skipping move numbers, comments, variations and annotations.
+     *
+     * @param text - The game as read by PdnReader.
+     */
+	public PdnGame(String text) {
+		int depth = 0;
+		for (String line : text.split("\n")) {
+			if (depth == 0 && line.startsWith("[")) {
+				readTag(line);
+				continue;
+			}
+
+			// Split the move text around comments and variations, which can span lines
+			StringBuilder token = new StringBuilder();
+			for (int i = 0; i <= line.length(); i++) {
+				char c = i < line.length() ? line.charAt(i) : ' ';
+				if (c == '{' || c == '(') {
+					depth++;
+				} else if (c == '}' || c == ')') {
+					depth = Math.max(0, depth - 1);
+				} else if (depth == 0 && !Character.isWhitespace(c)) {
+					token.append(c);
+					continue;
+				}
+
+				if (token.length() > 0) {
+					readToken(token.toString());
+					token.setLength(0);
+				}
+			}
+		}
+
+		// A result tag is only used if the move text didn't end with one
+		if (result == UNKNOWN && tags.containsKey("Result")) {
+			result = toResult(tags.get("Result"));
+		}
+	}
+
+	private void readTag(String line) {
+		int quote = line.indexOf('"');
+		int end = line.lastIndexOf('"');
+		if (quote > 1 && end > quote) {
+			tags.put(line.substring(1, quote).trim(), line.substring(quote + 1, end));
+		}
+	}
+
+	private void readToken(String token) {
+		int found = toResult(token);
+		if (found != UNKNOWN || token.equals("*")) {
+			result = found;
+			return;
+		}
+
+		// Drop move numbers, which may be joined to the move, and annotations
+		int dot = token.lastIndexOf('.');
+		if (dot >= 0) {
+			token = token.substring(dot + 1);
+		}
+		if (token.startsWith("$")) {
+			return;
+		}
+		token = token.replaceAll("[!?*]+$", "");
+
+		if (!token.isEmpty()) {
+			moves.add(token);
+		}
+	}
+
+    /**
+     * Reads a PDN result.
+     *
+     * @param text - The result, e.g. '1-0' or '1/2-1/2'.
+     * @return - One of the result constants.
+     */
+	private static int toResult(String text) {
+		switch (text) {
+			case "1-0":
+			case "2-0":
+				return BLACK_WINS;
+			case "0-1":
+			case "0-2":
+				return WHITE_WINS;
+			case "1/2-1/2":
+			case "1-1":
+				return DRAW;
+			default:
+				return UNKNOWN;
+		}
+	}
+
+    /**
+     * Getter for a tag.
+     *
+     * @param name - The tag name, e.g. "Event".
+     * @return - The tag value, or null if the game doesn't have it.
+     */
+	public String getTag(String name) {
+		return tags.get(name);
+	}
+
+    /**
+     * Getter for 'moves' field.
+     *
+     * @return - The moves as written, without numbers or annotations.
+     */
+	public List<String> getMoves() {
+		return moves;
+	}
+
+    /**
+     * Getter for 'result' field.
+     *
+     * @return - One of the result constants.
+     */
+	public int getResult() {
+		return result;
+	}
+
+    /**
+     * Finds the position the game starts from, read from its FEN tag if it has one.
+     *
+     * @return - The starting position.
+     */
+	public Position getStart() {
+		String fen = tags.get("FEN");
+		if (fen == null) {
+			return new Position(new Board(8, 8), SqState.BLACK);
+		}
+
+		// e.g. "B:W18,24,27,K10:B12,16,K22", ranges like 1-12 are allowed too
+		String[] sections = fen.trim().split(":");
+		Board board = new Board(8, 8);
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				if (board.isValidSquare(i, j)) {
+					board.setSquare(i, j, SqState.EMPTY);
+				}
+			}
+		}
+
+		for (int s = 1; s < sections.length; s++) {
+			String section = sections[s].trim();
+			if (section.isEmpty()) {
+				continue;
+			}
+			boolean white = Character.toUpperCase(section.charAt(0)) == 'W';
+			for (String square : section.substring(1).split(",")) {
+				square = square.trim();
+				if (square.isEmpty()) {
+					continue;
+				}
+				boolean king = square.startsWith("K");
+				String[] range = (king ? square.substring(1) : square).split("-");
+				int first = Integer.parseInt(range[0]);
+				int last = range.length > 1 ? Integer.parseInt(range[1]) : first;
+				for (int n = first; n <= last; n++) {
+					int[] at = toSquare(n);
+					board.setSquare(at[0], at[1], white
+							? (king ? SqState.WHITE_K : SqState.WHITE)
+							: (king ? SqState.BLACK_K : SqState.BLACK));
+				}
+			}
+		}
+
+		return new Position(board, fen.trim().toUpperCase().startsWith("W") ? SqState.WHITE : SqState.BLACK);
+	}
+
+    /**
+     * Converts a PDN square number into a row and col.
+     *
+     * @param n - The square, 1 to 32.
+     * @return - The row and col.
+     */
+	public static int[] toSquare(int n) {
+		if (n < 1 || n > 32) {
+			throw new IllegalArgumentException("No such square: " + n);
+		}
+
+		int row = (n - 1) / 4, pos = (n - 1) % 4;
+		return new int[]{row, row % 2 == 0 ? 2 * pos + 1 : 2 * pos};
+	}
+
+    /**
+     * Plays one written move.
+     * A jump written with only its first and last squares is filled in by finding the jumps between them.
+     *
+     * @param board - The board before the move.
+     * @param player - Who's moving.
+     * @param written - The move as written, e.g. '11-15' or '9x18x27'.
+     * @return - The board after the move.
+     * @throws IllegalArgumentException - If the move can't be read or isn't legal, with the reason.
+     */
+	public static Board play(Board board, SqState player, String written) {
+		boolean jump = written.indexOf('x') >= 0;
+		String[] squares = written.split("[-x]");
+		if (squares.length < 2 || (!jump && squares.length != 2)) {
+			throw new IllegalArgumentException("Can't read move");
+		}
+
+		int[] path = new int[squares.length];
+		try {
+			for (int i = 0; i < squares.length; i++) {
+				path[i] = Integer.parseInt(squares[i]);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Can't read move");
+		}
+
+		for (int i = 1; i < path.length; i++) {
+			int[] from = toSquare(path[i - 1]), to = toSquare(path[i]);
+			Move move = new Move(from, to, board, player);
+			MoveError error = move.checkLegal();
+
+			if (error == null && move.isJumping() == jump) {
+				board = board.copyAndMove(move);
+			} else if (jump) {
+				Board jumped = findJumps(board, player, from, to);
+				if (jumped == null) {
+					throw new IllegalArgumentException(error != null ? error.getMessage() : "Not a jump");
+				}
+				board = jumped;
+			} else {
+				throw new IllegalArgumentException(error != null ? error.getMessage() : "Must be a slide");
+			}
+		}
+
+		return board;
+	}
+
+    /**
+     * Finds a chain of jumps from one square to another.
+     *
+     * @param board - The board before the jumps.
+     * @param player - Who's jumping.
+     * @param from - Where the chain starts.
+     * @param to - Where the chain has to end.
+     * @return - The board after the chain, or null if there isn't one.
+     */
+	private static Board findJumps(Board board, SqState player, int[] from, int[] to) {
+		for (int i = -2; i <= 2; i += 4) {
+			for (int j = -2; j <= 2; j += 4) {
+				Move move = new Move(from, new int[]{from[0] + i, from[1] + j}, board, player);
+				if (move.checkLegal() != null || !move.isJumping()) {
+					continue;
+				}
+
+				Board next = board.copyAndMove(move);
+				if (move.getDest()[0] == to[0] && move.getDest()[1] == to[1]) {
+					return next;
+				}
+
+				Board rest = findJumps(next, player, move.getDest(), to);
+				if (rest != null) {
+					return rest;
+				}
+			}
+		}
+
+		return null;
+	}
+}
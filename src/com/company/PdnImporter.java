@@ -0,0 +1,301 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Replays PDN game archives and gathers statistics on them.
+ * One thread reads the games from the files into a bounded queue, and the rest replay them.
+ * Each replaying thread keeps its own statistics, merged once every game is done,
+ * so memory only grows with the number of distinct moves and openings.
+ */
+public class PdnImporter {
+
+	// Tells a replaying thread there are no more games
+	private static final Optional<String> END = Optional.empty();
+
+	// Illegal moves kept for the report, the rest are only counted
+	private static final int MAX_REPORTS = 20;
+
+	private final int threads;
+	private final int openingPlies;
+
+    /**
+     * Constructor.
+     *
+     * @param threads - How many threads replay games.
+     * @param openingPlies - How many moves make up an opening.
+     */
+	public PdnImporter(int threads, int openingPlies) {
+		this.threads = threads;
+		this.openingPlies = openingPlies;
+	}
+
+    /**
+     * Replays every game of the given files.
+     *
+     * @param files - PDN files, read in order.
+     * @return - The statistics over every game.
+     */
+	public Stats run(List<Path> files) throws IOException, InterruptedException {
+		BlockingQueue<Optional<String>> queue = new ArrayBlockingQueue<>(threads * 64);
+		List<Stats> parts = new ArrayList<>(threads);
+		List<Thread> workers = new ArrayList<>(threads);
+		Throwable[] failure = new Throwable[1];
+
+		for (int i = 0; i < threads; i++) {
+			Stats part = new Stats();
+			parts.add(part);
+			Thread worker = new Thread(() -> {
+				try {
+					Optional<String> text;
+					while ((text = queue.take()).isPresent()) {
+
+						// Keep draining after a failure, so the reader isn't left waiting on the queue
+						try {
+							replay(new PdnGame(text.get()), part);
+						} catch (RuntimeException e) {
+							synchronized (failure) {
+								failure[0] = e;
+							}
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "pdn-" + i);
+			worker.setDaemon(true);
+			workers.add(worker);
+			worker.start();
+		}
+
+		try {
+			for (Path file : files) {
+				try (PdnReader reader = new PdnReader(file)) {
+					while (reader.hasNext()) {
+						queue.put(Optional.of(reader.next()));
+					}
+				}
+			}
+		} finally {
+			for (int i = 0; i < threads; i++) {
+				queue.put(END);
+			}
+		}
+
+		Stats total = new Stats();
+		for (int i = 0; i < threads; i++) {
+			workers.get(i).join();
+			total.merge(parts.get(i));
+		}
+
+		synchronized (failure) {
+			if (failure[0] != null) {
+				throw new IllegalStateException("Replay failed", failure[0]);
+			}
+		}
+
+		return total;
+	}
+
+    /**
+     * Replays one game into the statistics.
+     * Replaying stops at the first move that can't be played.
+     *
+     * @param game - The game.
+     * @param stats - Where to count it.
+     */
+	private void replay(PdnGame game, Stats stats) {
+		stats.games++;
+		stats.results[game.getResult()]++;
+
+		Position start;
+		try {
+			start = game.getStart();
+		} catch (IllegalArgumentException e) {
+			stats.illegal(game, 0, "FEN", "Can't read FEN: " + e.getMessage());
+			return;
+		}
+
+		Board board = start.getBoard();
+		SqState player = start.getPlayer();
+		StringBuilder opening = new StringBuilder();
+		List<String> moves = game.getMoves();
+
+		for (int i = 0; i < moves.size(); i++) {
+			String written = moves.get(i);
+			try {
+				board = PdnGame.play(board, player, written);
+			} catch (IllegalArgumentException e) {
+				stats.illegal(game, i + 1, written, e.getMessage());
+				return;
+			}
+
+			stats.plies++;
+			stats.count(stats.moves, written, 1);
+			if (i < openingPlies) {
+				opening.append(i == 0 ? "" : " ").append(written);
+			}
+			player = player.getOpposite();
+		}
+
+		// Only games from the usual start and long enough to have an opening count towards one
+		if (game.getTag("FEN") == null && moves.size() >= openingPlies) {
+			long[] results = stats.openings.computeIfAbsent(opening.toString(), key -> new long[4]);
+			results[game.getResult()]++;
+		}
+	}
+
+	/**
+	 * Totals over a set of games.
+	 * Not thread safe, each replaying thread has its own.
+	 */
+	public static class Stats {
+
+		private long games, plies, illegalGames;
+		private final long[] results = new long[4];
+		private final Map<String, long[]> moves = new HashMap<>();
+		private final Map<String, long[]> openings = new HashMap<>();
+		private final List<String> reports = new ArrayList<>();
+
+		private void count(Map<String, long[]> counts, String key, long amount) {
+			counts.computeIfAbsent(key, k -> new long[1])[0] += amount;
+		}
+
+		private void illegal(PdnGame game, int ply, String move, String reason) {
+			illegalGames++;
+			if (reports.size() < MAX_REPORTS) {
+				String event = game.getTag("Event");
+				reports.add((event == null ? "?" : event) + ", move " + ply + " '" + move + "': " + reason);
+			}
+		}
+
+		private void merge(Stats other) {
+			games += other.games;
+			plies += other.plies;
+			illegalGames += other.illegalGames;
+			for (int i = 0; i < results.length; i++) {
+				results[i] += other.results[i];
+			}
+			other.moves.forEach((move, count) -> count(moves, move, count[0]));
+			other.openings.forEach((opening, counts) -> {
+				long[] total = openings.computeIfAbsent(opening, key -> new long[4]);
+				for (int i = 0; i < total.length; i++) {
+					total[i] += counts[i];
+				}
+			});
+			for (String report : other.reports) {
+				if (reports.size() < MAX_REPORTS) {
+					reports.add(report);
+				}
+			}
+		}
+
+		public long getGames() {
+			return games;
+		}
+
+		public long getPlies() {
+			return plies;
+		}
+
+		public long getIllegalGames() {
+			return illegalGames;
+		}
+
+        /**
+         * Writes the totals, with the most common moves and openings.
+         *
+         * @param top - How many moves and openings to list.
+         * @return - The report, over several lines.
+         */
+		public String report(int top) {
+			StringBuilder text = new StringBuilder();
+			text.append(String.format(Locale.ROOT, "Games: %d, moves: %d, stopped at an illegal move: %d%n",
+					games, plies, illegalGames));
+			text.append(String.format(Locale.ROOT, "Results: black %d, white %d, drawn %d, unknown %d%n",
+					results[PdnGame.BLACK_WINS], results[PdnGame.WHITE_WINS], results[PdnGame.DRAW],
+					results[PdnGame.UNKNOWN]));
+
+			text.append(String.format(Locale.ROOT, "Most played moves:%n"));
+			moves.entrySet().stream()
+					.sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+					.limit(top)
+					.forEach(entry -> text.append(String.format(Locale.ROOT, "    %-10s %d%n",
+							entry.getKey(), entry.getValue()[0])));
+
+			text.append(String.format(Locale.ROOT, "Most played openings (black/white/drawn/unknown):%n"));
+			openings.entrySet().stream()
+					.sorted((a, b) -> Long.compare(sum(b.getValue()), sum(a.getValue())))
+					.limit(top)
+					.forEach(entry -> {
+						long[] r = entry.getValue();
+						text.append(String.format(Locale.ROOT, "    %-24s %d/%d/%d/%d%n",
+								entry.getKey(), r[0], r[1], r[2], r[3]));
+					});
+
+			if (!reports.isEmpty()) {
+				text.append(String.format(Locale.ROOT, "Illegal moves (first %d):%n", reports.size()));
+				for (String report : reports) {
+					text.append("    ").append(report).append(System.lineSeparator());
+				}
+			}
+
+			return text.toString();
+		}
+
+		private static long sum(long[] values) {
+			long sum = 0;
+			for (long value : values) {
+				sum += value;
+			}
+			return sum;
+		}
+	}
+
+    /**
+     * Imports PDN files from the command line.
+     * Usage: pdn [--threads N] [--opening-plies N] [--top N] file...
+     *
+     * @param args - The command line arguments, after 'pdn'.
+     */
+	public static void run(String[] args) throws IOException, InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors(), openingPlies = 3, top = 10;
+		List<Path> files = new ArrayList<>();
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--opening-plies":
+					openingPlies = Integer.parseInt(args[++i]);
+					break;
+				case "--top":
+					top = Integer.parseInt(args[++i]);
+					break;
+				default:
+					files.add(Paths.get(args[i]));
+			}
+		}
+		if (files.isEmpty()) {
+			throw new IllegalArgumentException("Usage: pdn [--threads N] [--opening-plies N] [--top N] file...");
+		}
+
+		long start = System.nanoTime();
+		Stats stats = new PdnImporter(threads, openingPlies).run(files);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.print(stats.report(top));
+		System.out.printf(Locale.ROOT, "%d games in %.1f s, %.0f games/s%n", stats.getGames(), seconds, stats.getGames() / seconds);
+	}
+}
@@ -0,0 +1,138 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a PDN file into the text of its games, one game at a time.
+ * The file is mapped a window at a time rather than read, so only the game being built is held in memory,
+ * however big the file.
+ * A game is its tag lines followed by its move text, and ends where the next game's tags start.
+ * Text is read as Latin-1, which covers the ASCII that PDN move text is written in.
+ */
+public class PdnReader implements Iterator<String>, AutoCloseable {
+
+	// Bytes mapped at once
+	private static final long WINDOW = 64L << 20;
+
+	private final FileChannel channel;
+	private final long length;
+	private MappedByteBuffer window;
+	private long windowStart;
+
+	private final StringBuilder line = new StringBuilder();
+	private StringBuilder game = new StringBuilder();
+	private boolean hasMoves;
+	private String next;
+
+    /**
+     * Constructor.
+     *
+     * @param file - The PDN file.
+     */
+	public PdnReader(Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.length = channel.size();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			try {
+				next = readGame();
+			} catch (IOException e) {
+				throw new IllegalStateException("Can't read PDN", e);
+			}
+		}
+
+		return next != null;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		String game = next;
+		next = null;
+		return game;
+	}
+
+    /**
+     * Reads lines until a whole game has been seen.
+     *
+     * @return - The game's text, or null at the end of the file.
+     */
+	private String readGame() throws IOException {
+		while (windowStart + (window == null ? 0 : window.position()) < length) {
+			if (window == null || !window.hasRemaining()) {
+				windowStart += window == null ? 0 : window.capacity();
+				window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(WINDOW, length - windowStart));
+			}
+
+			while (window.hasRemaining()) {
+				char c = (char) (window.get() & 0xff);
+				if (c == '\n') {
+					String finished = endLine();
+					if (finished != null) {
+						return finished;
+					}
+				} else if (c != '\r') {
+					line.append(c);
+				}
+			}
+		}
+
+		// The last line and game may not end with a newline
+		String finished = endLine();
+		if (finished != null) {
+			return finished;
+		}
+		if (game.length() > 0) {
+			return takeGame();
+		}
+
+		return null;
+	}
+
+    /**
+     * Adds the finished line to the game being built.
+     *
+     * @return - The previous game, if this line started a new one, otherwise null.
+     */
+	private String endLine() {
+		String text = line.toString().trim();
+		line.setLength(0);
+
+		String finished = null;
+		if (text.startsWith("[") && hasMoves) {
+			finished = takeGame();
+		}
+		if (!text.isEmpty()) {
+			game.append(text).append('\n');
+			if (!text.startsWith("[")) {
+				hasMoves = true;
+			}
+		}
+
+		return finished;
+	}
+
+	private String takeGame() {
+		String text = game.toString();
+		game = new StringBuilder();
+		hasMoves = false;
+		return text;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,329 @@
+package com.company;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the leaf nodes of the game tree to a fixed depth.
+ * Uses the same move generation and turn order as the game,
+ * so any change to move generation can be checked against the known counts in 'perft.txt'.
+ * When validating, every generated move list is also checked against 'Move.checkLegal',
+ * so the fast generator is proven to agree with the rules as the game checks them.
+ */
+public class Perft {
+
+	// Corpus of positions and their expected counts
+	private static final String CORPUS = "perft.txt";
+
+	private final ForkJoinPool pool;
+	private final ConcurrentHashMap<String, Long> cache;
+	private final boolean validate;
+
+	// Every position move generation has been run on
+	private final LongAdder nodes = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param pool - The pool the root moves are split across.
+     * @param useCache - Whether to count repeated subtrees only once.
+     */
+	public Perft(ForkJoinPool pool, boolean useCache) {
+		this(pool, useCache, false);
+	}
+
+    /**
+     * Constructor.
+     *
+     * @param pool - The pool the root moves are split across.
+     * @param useCache - Whether to count repeated subtrees only once.
+     * @param validate - Whether to check every generated move list against 'Move.checkLegal'.
+     */
+	public Perft(ForkJoinPool pool, boolean useCache, boolean validate) {
+		this.pool = pool;
+		this.cache = useCache ? new ConcurrentHashMap<>() : null;
+		this.validate = validate;
+	}
+
+    /**
+     * Counts the leaf nodes below the given position.
+     * Each root move is counted by its own task.
+     *
+     * @param position - Where to start counting.
+     * @param depth - How many moves deep to count.
+     * @return - The number of leaf nodes.
+     */
+	public long count(Position position, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+
+		ArrayList<Move> moves = generate(position);
+
+		// Split the root
+		List<PerftTask> tasks = new ArrayList<>();
+		for (Move move : moves) {
+			tasks.add(new PerftTask(position.afterMove(move), depth - 1));
+		}
+
+		return pool.invoke(new RecursiveTask<Long>() {
+			@Override
+			protected Long compute() {
+				long total = 0;
+				for (PerftTask task : invokeAll(tasks)) {
+					total += task.join();
+				}
+				return total;
+			}
+		});
+	}
+
+    /**
+     * Getter for the node count.
+     *
+     * @return - How many positions have had their moves generated so far.
+     */
+	public long getNodes() {
+		return nodes.sum();
+	}
+
+    /**
+     * Counts the leaf nodes below a position on the current thread.
+     * Moves at depth 1 are counted without being made.
+     *
+     * @param position - Where to start counting.
+     * @param depth - How many moves deep to count.
+     * @return - The number of leaf nodes.
+     */
+	private long countFrom(Position position, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+
+		// Look for a previous count of this subtree
+		String key = null;
+		if (cache != null && depth > 1) {
+			key = position + "/" + depth;
+			Long cached = cache.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		ArrayList<Move> moves = generate(position);
+
+		long total;
+		if (depth == 1) {
+			total = moves.size();
+		} else {
+			total = 0;
+			for (Move move : moves) {
+				total += countFrom(position.afterMove(move), depth - 1);
+			}
+		}
+
+		if (key != null) {
+			cache.put(key, total);
+		}
+
+		return total;
+	}
+
+    /**
+     * Generates the moves of a position, checking them if validating.
+     *
+     * @param position - The position.
+     * @return - Its legal moves.
+     * @throws IllegalStateException - If validating and the moves don't match 'Move.checkLegal'.
+     */
+	private ArrayList<Move> generate(Position position) {
+		ArrayList<Move> moves = position.getLegalMoves();
+		nodes.increment();
+
+		if (validate) {
+			String mismatch = compare(position, moves);
+			if (mismatch != null) {
+				throw new IllegalStateException(mismatch);
+			}
+		}
+
+		return moves;
+	}
+
+    /**
+     * Checks generated moves against every move 'Move.checkLegal' allows.
+     * Every source and destination within two squares is tried, since anything further is out of range.
+     * Sources are tried row by row and destinations jumps first, each in the generator's direction order,
+     * so the two lists have to match in order too, as seeded searches depend on it.
+     *
+     * @param position - The position.
+     * @param moves - The moves generated for it.
+     * @return - What differs, or null if they match.
+     */
+	static String compare(Position position, List<Move> moves) {
+		Board board = position.getBoard();
+		List<Move> expected = new ArrayList<>();
+
+		for (int i = 0; i < board.getRows(); i++) {
+			for (int j = 0; j < board.getCols(); j++) {
+				for (int distance = 2; distance >= 1; distance--) {
+					for (int k = -distance; k <= distance; k += 2 * distance) {
+						for (int l = -distance; l <= distance; l += 2 * distance) {
+							Move move = new Move(new int[]{i, j}, new int[]{i + k, j + l}, board, position.getPlayer());
+							if (move.checkLegal() == null) {
+								expected.add(move);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		String have = describe(moves), want = describe(expected);
+		return have.equals(want) ? null : position + ": generated [" + have + "], checkLegal allows [" + want + "]";
+	}
+
+	private static String describe(List<Move> moves) {
+		StringBuilder text = new StringBuilder();
+		for (Move move : moves) {
+			text.append(text.length() == 0 ? "" : " ").append(move.toNotation()).append(move.isJumping() ? "x" : "");
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Counts the subtree below a single root move.
+	 */
+	private class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Position position;
+		private final int depth;
+
+		private PerftTask(Position position, int depth) {
+			this.position = position;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			return countFrom(position, depth);
+		}
+	}
+
+    /**
+     * Runs perft from the command line.
+     * Usage: perft [--threads N] [--hash] [--validate] [position depth]
+     * With no position, every entry in the corpus is counted and checked.
+     * With --validate, every move list is also checked against 'Move.checkLegal', which is much slower.
+     *
+     * @param args - The command line arguments, after 'perft'.
+     * @return - True if every count matched, false if not.
+     */
+	public static boolean run(String[] args) throws IOException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean useCache = false, validate = false;
+		List<String> rest = new ArrayList<>();
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--threads")) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("--hash")) {
+				useCache = true;
+			} else if (args[i].equals("--validate")) {
+				validate = true;
+			} else {
+				rest.add(args[i]);
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		boolean passed = true;
+		try {
+			// A single position
+			if (rest.size() == 2) {
+				Position position = new Position(rest.get(0));
+				int depth = Integer.parseInt(rest.get(1));
+				for (int d = 1; d <= depth; d++) {
+					passed &= report(new Perft(pool, useCache, validate), position, d, -1);
+				}
+				return passed;
+			}
+
+			// The whole corpus
+			for (String[] entry : readCorpus()) {
+				passed &= report(new Perft(pool, useCache, validate), new Position(entry[0]),
+						Integer.parseInt(entry[1]), Long.parseLong(entry[2]));
+			}
+			System.out.println(passed ? "All counts match." : "Some counts did not match!");
+			return passed;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+    /**
+     * Counts one position and prints the result along with the speed.
+     *
+     * @param perft - A fresh counter.
+     * @param position - Where to start counting.
+     * @param depth - How many moves deep to count.
+     * @param expected - The known count, or -1 if there isn't one.
+     * @return - True if the count matched or there was nothing to match, and validation passed, false if not.
+     */
+	private static boolean report(Perft perft, Position position, int depth, long expected) {
+		long start = System.nanoTime();
+		long leaves;
+		try {
+			leaves = perft.count(position, depth);
+		} catch (IllegalStateException e) {
+			System.out.println("FAIL " + position + " depth " + depth + ": " + e.getMessage());
+			return false;
+		}
+		long elapsed = Math.max(1, System.nanoTime() - start);
+
+		boolean matched = expected < 0 || leaves == expected;
+		System.out.println((matched ? "ok   " : "FAIL ") + position + " depth " + depth +
+				": " + leaves + (expected < 0 || matched ? "" : " (expected " + expected + ")") +
+				", " + perft.getNodes() * 1_000_000_000L / elapsed + " nodes/s" +
+				", " + elapsed / 1_000_000 + " ms");
+		return matched;
+	}
+
+    /**
+     * Reads the corpus of known counts.
+     * Each line holds a position, a depth and the leaf count; '#' starts a comment.
+     *
+     * @return - Every entry as its three fields.
+     */
+	static List<String[]> readCorpus() throws IOException {
+		List<String[]> entries = new ArrayList<>();
+
+		try (InputStream in = Perft.class.getResourceAsStream(CORPUS)) {
+			if (in == null) {
+				throw new IOException("Missing perft corpus: " + CORPUS);
+			}
+
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					entries.add(line.split("\\s+"));
+				}
+			}
+		}
+
+		return entries;
+	}
+}
@@ -0,0 +1,129 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Searches ahead while the opponent is thinking.
+ * Every reply the opponent can make gets a background search of the position it leads to,
+ * one at a time, starting with the reply the engine itself would pick for them,
+ * so the likeliest position has the pool to itself and the others only use time left over.
+ * Once the opponent moves, the search of the position actually reached is kept
+ * and every other one is stopped.
+ * Pondering searches aren't recorded, since they aren't the game's own searches.
+ * A ponderer belongs to one game, and only locks against its own searches finishing.
+ */
+public class Ponderer {
+
+	// How deep to look for the opponent's most likely reply
+	private static final int PREDICT_DEPTH = 1;
+
+	private final Engine engine;
+	private final SearchLimits limits;
+	private final Map<String, SearchHandle> searches = new LinkedHashMap<>();
+	private final Map<String, Position> waiting = new LinkedHashMap<>();
+
+	// Bumped on every stop, so a search finishing late doesn't start the next one of an old round
+	private int round;
+
+    /**
+     * Constructor.
+     *
+     * @param engine - The engine to search with.
+     * @param limits - The limits of each background search, the same as a normal search.
+     */
+	public Ponderer(Engine engine, SearchLimits limits) {
+		this.engine = engine;
+		this.limits = limits;
+	}
+
+    /**
+     * Starts searching the positions after each of the opponent's replies.
+     * Replies that let the opponent go again aren't searched,
+     * since it won't be the engine's turn after them.
+     *
+     * @param position - The position with the opponent to move.
+     */
+	public void start(Position position) {
+		stop();
+
+		ArrayList<Move> replies = position.getLegalMoves();
+		if (replies.isEmpty()) {
+			return;
+		}
+
+		// The predicted reply is searched first, without the lock, as a search finishing on the pool may need it
+		Move predicted = engine.search(position, new SearchLimits(PREDICT_DEPTH), null, false).getMove();
+		for (int i = 0; i < replies.size(); i++) {
+			// Moves from another search are other objects, so compare the squares
+			Move reply = replies.get(i);
+			if (Arrays.equals(reply.getSource(), predicted.getSource()) &&
+					Arrays.equals(reply.getDest(), predicted.getDest())) {
+				replies.add(0, replies.remove(i));
+				break;
+			}
+		}
+
+		synchronized (this) {
+			for (Move reply : replies) {
+				Position next = position.afterMove(reply);
+				if (next.getPlayer() != position.getPlayer()) {
+					waiting.putIfAbsent(next.toString(), next);
+				}
+			}
+			startNext(round);
+		}
+	}
+
+    /**
+     * Finishes pondering once the opponent has moved.
+     * If the position reached was searched, waits for that search to finish and returns it.
+     * Every other search is stopped, and any not yet started are dropped.
+     *
+     * @param position - The position after the opponent's move.
+     * @return - The result for the position, or null if it wasn't pondered.
+     */
+	public SearchResult finish(Position position) {
+		SearchHandle hit;
+		synchronized (this) {
+			hit = searches.remove(position.toString());
+			stop();
+		}
+
+		// Waited on without the lock, which the search needs as it finishes
+		return hit == null ? null : hit.getFuture().join();
+	}
+
+    /**
+     * Stops every background search.
+     */
+	public synchronized void stop() {
+		round++;
+		waiting.clear();
+		for (SearchHandle handle : searches.values()) {
+			handle.getFuture().cancel(false);
+		}
+		searches.clear();
+	}
+
+    /**
+     * Starts the next waiting search, which starts the one after it when it finishes.
+     *
+     * @param started - The round the finished search belonged to.
+     */
+	private synchronized void startNext(int started) {
+		Iterator<Map.Entry<String, Position>> next = waiting.entrySet().iterator();
+		if (started != round || !next.hasNext()) {
+			return;
+		}
+
+		Map.Entry<String, Position> entry = next.next();
+		next.remove();
+		SearchHandle handle = engine.searchAsync(entry.getValue(), limits, null, null, false);
+		searches.put(entry.getKey(), handle);
+		handle.getFuture().whenComplete((result, error) -> startNext(started));
+	}
+}
@@ -0,0 +1,220 @@
+package com.company;
+
+import java.util.ArrayList;
+
+public class Position {
+
+	private final Board board;
+	private final SqState player;
+
+    /**
+     * Constructor.
+     *
+     * @param board - The layout of the pieces.
+     * @param player - Whose turn it is.
+     */
+	public Position(Board board, SqState player) {
+		this.board = board;
+		this.player = player;
+	}
+
+    /**
+     * Constructor.
+     * Reads a position written by 'toString', e.g. "B:bbbbbbbbbbbb........wwwwwwwwwwww".
+     * The first letter is the player to move, followed by every valid square
+     * from the top left of the board, row by row.
+     * The board size is worked out from how many squares are listed.
+     *
+     * @param text - The position in text form.
+     */
+	public Position(String text) {
+		int split = text.indexOf(':');
+		if (split != 1) {
+			throw new IllegalArgumentException("Missing player to move: " + text);
+		}
+
+		// Player to move
+		switch (text.charAt(0)) {
+			case 'B':
+				this.player = SqState.BLACK;
+				break;
+			case 'W':
+				this.player = SqState.WHITE;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown player to move: " + text);
+		}
+
+		// A square board has half of its squares on the diagonals
+		String squares = text.substring(split + 1);
+		int size = (int) Math.round(Math.sqrt(squares.length() * 2));
+		if (size * size != squares.length() * 2) {
+			throw new IllegalArgumentException("Not a square board: " + text);
+		}
+
+		this.board = new Board(size, size);
+		int k = 0;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (board.isValidSquare(i, j)) {
+					board.setSquare(i, j, toState(squares.charAt(k++)));
+				}
+			}
+		}
+	}
+
+    /**
+     * Constructor.
+     * Reads a position written by 'toBytes'.
+     *
+     * @param bytes - The position in binary form.
+     */
+	public Position(byte[] bytes) {
+		int size = bytes[0] & 0x7f;
+		this.player = (bytes[0] & 0x80) == 0 ? SqState.BLACK : SqState.WHITE;
+		this.board = new Board(size, size);
+
+		SqState[] states = SqState.values();
+		int k = 0;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (board.isValidSquare(i, j)) {
+					int code = (bytes[1 + k / 2] >> (k % 2 == 0 ? 0 : 4)) & 0xf;
+					board.setSquare(i, j, states[code]);
+					k++;
+				}
+			}
+		}
+	}
+
+    /**
+     * Getter for 'board' field.
+     *
+     * @return - The layout of the pieces.
+     */
+	public Board getBoard() {
+		return board;
+	}
+
+    /**
+     * Getter for 'player' field.
+     *
+     * @return - Whose turn it is.
+     */
+	public SqState getPlayer() {
+		return player;
+	}
+
+    /**
+     * Finds every legal move for the player to move.
+     *
+     * @return - A list of legal moves, empty if the game is over.
+     */
+	public ArrayList<Move> getLegalMoves() {
+		return board.getLegalMoves(player);
+	}
+
+    /**
+     * Creates the position reached after the given move, following the game's turn order.
+     * Turns switch after every move, except that a jump lets the same player go again
+     * as long as the opponent still has a legal move.
+     * If the opponent has no legal moves the game is over and it's left as their turn.
+     *
+     * @param move - A legal move for this position.
+     * @return - The position after the move.
+     */
+	public Position afterMove(Move move) {
+		Board next = board.copyAndMove(move);
+		SqState opponent = player.getOpposite();
+
+		if (move.isJumping() && !next.getLegalMoves(opponent).isEmpty()) {
+			return new Position(next, player);
+		}
+
+		return new Position(next, opponent);
+	}
+
+    /**
+     * Writes this position in the form read by the text constructor.
+     *
+     * @return - The position in text form.
+     */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		text.append(player == SqState.BLACK ? 'B' : 'W').append(':');
+
+		for (int i = 0; i < board.getRows(); i++) {
+			for (int j = 0; j < board.getCols(); j++) {
+				if (board.isValidSquare(i, j)) {
+					text.append(toChar(board.getSquare(i, j)));
+				}
+			}
+		}
+
+		return text.toString();
+	}
+
+    /**
+     * Writes this position compactly, for sending to other processes.
+     * The first byte holds the board size, with the top bit set if white is to move.
+     * Every valid square follows as 4 bits, two to a byte, in the same order as the text form.
+     *
+     * @return - The position in binary form, 17 bytes for an 8x8 board.
+     */
+	public byte[] toBytes() {
+		int size = board.getRows();
+		byte[] bytes = new byte[1 + (size * size / 2 + 1) / 2];
+		bytes[0] = (byte) (size | (player == SqState.WHITE ? 0x80 : 0));
+
+		int k = 0;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (board.isValidSquare(i, j)) {
+					bytes[1 + k / 2] |= board.getSquare(i, j).ordinal() << (k % 2 == 0 ? 0 : 4);
+					k++;
+				}
+			}
+		}
+
+		return bytes;
+	}
+
+    /**
+     * Converts a square's text form into its state.
+     *
+     * @param c - The letter used for the square.
+     * @return - The state of the square.
+     */
+	private static SqState toState(char c) {
+		switch (c) {
+			case '.':
+				return SqState.EMPTY;
+			case 'b':
+				return SqState.BLACK;
+			case 'w':
+				return SqState.WHITE;
+			case 'B':
+				return SqState.BLACK_K;
+			case 'W':
+				return SqState.WHITE_K;
+			default:
+				throw new IllegalArgumentException("Unknown square: " + c);
+		}
+	}
+
+    /**
+     * Converts a square's state into its text form.
+     * Same as the board token, except empty squares are written as dots.
+     *
+     * @param state - The state of the square.
+     * @return - The letter used for the square.
+     */
+	private static char toChar(SqState state) {
+		if (state.isEmpty()) {
+			return '.';
+		}
+
+		return state.getToken().charAt(0);
+	}
+}
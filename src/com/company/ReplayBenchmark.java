@@ -0,0 +1,229 @@
+package com.company;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replays a recorded corpus of searches with a fixed seed, so that runs can be compared between builds.
+ * With the same seed every search picks the same move and searches the same number of boards,
+ * so a baseline from an earlier build shows both whether behavior changed and how the speed of each search moved.
+ */
+public class ReplayBenchmark {
+
+	private final Engine engine;
+	private final long seed;
+	private final int repeats;
+
+    /**
+     * Constructor.
+     *
+     * @param engine - The engine to search with.
+     * @param seed - Seed for breaking ties, the same for every search.
+     * @param repeats - How many times to run each search, keeping the fastest.
+     */
+	public ReplayBenchmark(Engine engine, long seed, int repeats) {
+		this.engine = engine;
+		this.seed = seed;
+		this.repeats = repeats;
+	}
+
+    /**
+     * Runs one recorded search.
+     *
+     * @param position - The position.
+     * @param depth - How deep to search.
+     * @return - What was found, with the fastest time, or null if the repeats didn't all agree.
+     */
+	public Entry replay(Position position, int depth) {
+		SearchLimits limits = new SearchLimits(depth).withSeed(seed);
+		Entry best = null;
+
+		for (int i = 0; i < repeats; i++) {
+			SearchResult result = engine.search(position, limits);
+			Entry entry = new Entry(position.toString(), depth,
+					result.getMove() == null ? "-" : result.getMove().toNotation(), result.getNodes(), result.getNanos());
+
+			// Every repeat has to do the same work
+			if (best != null && !entry.sameWork(best)) {
+				return null;
+			}
+			if (best == null || entry.nanos < best.nanos) {
+				best = entry;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * One replayed search, as written to and read from a results file:
+	 * 'position depth move nodes nanos'.
+	 */
+	static class Entry {
+
+		private final String position;
+		private final int depth;
+		private final String move;
+		private final long nodes;
+		private final long nanos;
+
+		Entry(String position, int depth, String move, long nodes, long nanos) {
+			this.position = position;
+			this.depth = depth;
+			this.move = move;
+			this.nodes = nodes;
+			this.nanos = nanos;
+		}
+
+		static Entry parse(String line) {
+			String[] parts = line.trim().split("\\s+");
+			return new Entry(parts[0], Integer.parseInt(parts[1]), parts[2], Long.parseLong(parts[3]),
+					Long.parseLong(parts[4]));
+		}
+
+		boolean sameSearch(Entry other) {
+			return position.equals(other.position) && depth == other.depth;
+		}
+
+		boolean sameWork(Entry other) {
+			return sameSearch(other) && move.equals(other.move) && nodes == other.nodes;
+		}
+
+		@Override
+		public String toString() {
+			return position + " " + depth + " " + move + " " + nodes + " " + nanos;
+		}
+	}
+
+    /**
+     * Reads the non-comment lines of a corpus or results file.
+     *
+     * @param file - The file.
+     * @return - The lines, trimmed.
+     */
+	private static List<String> readLines(String file) throws IOException {
+		List<String> lines = new ArrayList<>();
+		for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith("#")) {
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+    /**
+     * Replays a corpus from the command line.
+     * Usage: replay [--seed N] [--threads N] [--repeats N] [--out file] [--baseline file] corpus
+     * The corpus has a 'position depth' line per search, as written by SearchRecorder.
+     * Results are written to the out file, to be used as the baseline of a later run.
+     * Against a baseline, every move and node count has to match, and the change in time is shown per search.
+     *
+     * @param args - The command line arguments, after 'replay'.
+     * @return - True if every search was repeatable and matched the baseline, false if not.
+     */
+	public static boolean run(String[] args) throws IOException {
+		int threads = Runtime.getRuntime().availableProcessors(), repeats = 3;
+		long seed = 1;
+		String corpus = null, outFile = null, baselineFile = null;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--repeats":
+					repeats = Integer.parseInt(args[++i]);
+					break;
+				case "--out":
+					outFile = args[++i];
+					break;
+				case "--baseline":
+					baselineFile = args[++i];
+					break;
+				default:
+					corpus = args[i];
+			}
+		}
+		if (corpus == null || seed == 0) {
+			throw new IllegalArgumentException("Usage: replay [--seed N] [--threads N] [--repeats N] [--out file] " +
+					"[--baseline file] corpus, with a seed other than 0");
+		}
+
+		List<Entry> baseline = new ArrayList<>();
+		if (baselineFile != null) {
+			for (String line : readLines(baselineFile)) {
+				baseline.add(Entry.parse(line));
+			}
+		}
+
+		boolean passed = true;
+		long total = 0, compared = 0, baselineTotal = 0;
+		List<Double> ratios = new ArrayList<>();
+
+		try (Engine engine = new Engine(threads);
+			 PrintStream out = outFile == null ? null : new PrintStream(outFile, "UTF-8")) {
+			ReplayBenchmark benchmark = new ReplayBenchmark(engine, seed, repeats);
+			if (out != null) {
+				out.println("# position depth move nodes nanos, seed " + seed + ", " + threads + " thread(s)");
+			}
+
+			List<String> searches = readLines(corpus);
+			for (int i = 0; i < searches.size(); i++) {
+				String[] parts = searches.get(i).split("\\s+");
+				Entry entry = benchmark.replay(new Position(parts[0]), Integer.parseInt(parts[1]));
+				if (entry == null) {
+					System.out.println("UNSTABLE " + searches.get(i) + ": repeats picked different moves or nodes");
+					passed = false;
+					continue;
+				}
+				if (out != null) {
+					out.println(entry);
+				}
+				total += entry.nanos;
+
+				if (i >= baseline.size()) {
+					continue;
+				}
+				Entry base = baseline.get(i);
+				if (!entry.sameSearch(base)) {
+					System.out.println("MISSING " + entry.position + " " + entry.depth + ": baseline has " +
+							base.position + " " + base.depth + " here");
+					passed = false;
+					continue;
+				}
+
+				// Compare the work, then the time
+				boolean same = entry.sameWork(base);
+				passed &= same;
+				baselineTotal += base.nanos;
+				compared += entry.nanos;
+				double ratio = (double) entry.nanos / Math.max(1, base.nanos);
+				ratios.add(ratio);
+				System.out.printf("%s %s %d: %s %d nodes%s, %.2f -> %.2f ms (%+.1f%%)%n",
+						same ? "ok  " : "DIFF", entry.position, entry.depth, entry.move, entry.nodes,
+						same ? "" : " (baseline " + base.move + " " + base.nodes + " nodes)",
+						base.nanos / 1e6, entry.nanos / 1e6, (ratio - 1) * 100);
+			}
+
+			System.out.printf("%d searches in %.1f ms%n", searches.size(), total / 1e6);
+		}
+
+		if (!ratios.isEmpty()) {
+			Collections.sort(ratios);
+			System.out.printf("Against the baseline: %.1f -> %.1f ms in total, median change %+.1f%%%n",
+					baselineTotal / 1e6, compared / 1e6, (ratios.get(ratios.size() / 2) - 1) * 100);
+		}
+		System.out.println(passed ? "All searches match." : "Some searches did not match!");
+		return passed;
+	}
+}
@@ -0,0 +1,303 @@
+package com.company;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how the search scales with the number of threads.
+ * Every depth is searched over the same set of positions with 1..N threads,
+ * and each thread count is compared against the single threaded run.
+ */
+public class ScalingBenchmark {
+
+	private final List<Position> positions;
+	private final int warmups;
+	private final int repeats;
+
+    /**
+     * Constructor.
+     *
+     * @param positions - The positions searched in every run.
+     * @param warmups - How many untimed runs to do before measuring.
+     * @param repeats - How many timed runs to take the median of.
+     */
+	public ScalingBenchmark(List<Position> positions, int warmups, int repeats) {
+		this.positions = positions;
+		this.warmups = warmups;
+		this.repeats = repeats;
+	}
+
+    /**
+     * Runs every combination of depth and thread count.
+     *
+     * @param depths - The search depths to measure.
+     * @param threadCounts - The thread counts to measure, the first being the baseline.
+     * @return - One result per combination.
+     */
+	public List<Result> run(int[] depths, int[] threadCounts) {
+		List<Result> results = new ArrayList<>();
+
+		for (int depth : depths) {
+			Result baseline = null;
+
+			for (int threads : threadCounts) {
+				ForkJoinPool pool = new ForkJoinPool(threads);
+				try {
+					// Let the JIT settle
+					for (int i = 0; i < warmups; i++) {
+						searchAll(pool, depth);
+					}
+
+					// Median of the timed runs
+					long[] times = new long[repeats];
+					long nodes = 0;
+					for (int i = 0; i < repeats; i++) {
+						long start = System.nanoTime();
+						nodes = searchAll(pool, depth);
+						times[i] = System.nanoTime() - start;
+					}
+					Arrays.sort(times);
+
+					Result result = new Result(depth, threads, times[repeats / 2], nodes, baseline);
+					if (baseline == null) {
+						baseline = result;
+					}
+					results.add(result);
+				} finally {
+					pool.shutdown();
+				}
+			}
+		}
+
+		return results;
+	}
+
+    /**
+     * Searches every position once.
+     *
+     * @param pool - The pool to search with.
+     * @param depth - How deep to search.
+     * @return - How many boards were searched in total.
+     */
+	private long searchAll(ForkJoinPool pool, int depth) {
+		long nodes = 0;
+		for (Position position : positions) {
+			AITask root = new AITask(position.getBoard(), position.getPlayer(), 0, depth);
+			pool.invoke(root);
+			nodes += root.getNodes();
+		}
+		return nodes;
+	}
+
+	/**
+	 * The measurements for one depth and thread count.
+	 */
+	public static class Result {
+
+		private final int depth;
+		private final int threads;
+		private final long nanos;
+		private final long nodes;
+		private final double speedup;
+		private final double overhead;
+
+		private Result(int depth, int threads, long nanos, long nodes, Result baseline) {
+			this.depth = depth;
+			this.threads = threads;
+			this.nanos = Math.max(1, nanos);
+			this.nodes = nodes;
+			this.speedup = baseline == null ? 1.0 : (double) baseline.nanos / this.nanos;
+			this.overhead = baseline == null ? 1.0 : (double) nodes / baseline.nodes;
+		}
+
+		public int getDepth() {
+			return depth;
+		}
+
+		public int getThreads() {
+			return threads;
+		}
+
+		public double getMillis() {
+			return nanos / 1e6;
+		}
+
+		public long getNodes() {
+			return nodes;
+		}
+
+		public double getNodesPerSecond() {
+			return nodes * 1e9 / nanos;
+		}
+
+		public double getSpeedup() {
+			return speedup;
+		}
+
+		public double getEfficiency() {
+			return speedup / threads;
+		}
+
+		public double getOverhead() {
+			return overhead;
+		}
+	}
+
+    /**
+     * Writes the results as CSV with a header row.
+     *
+     * @param results - The results to write.
+     * @param out - Where to write them.
+     */
+	public static void writeCsv(List<Result> results, PrintStream out) {
+		out.println("depth,threads,time_ms,nodes,nodes_per_sec,speedup,efficiency,search_overhead");
+		for (Result r : results) {
+			out.println(String.format(Locale.ROOT, "%d,%d,%.3f,%d,%.0f,%.3f,%.3f,%.3f",
+					r.getDepth(), r.getThreads(), r.getMillis(), r.getNodes(),
+					r.getNodesPerSecond(), r.getSpeedup(), r.getEfficiency(), r.getOverhead()));
+		}
+	}
+
+    /**
+     * Writes the results as a JSON array.
+     *
+     * @param results - The results to write.
+     * @param out - Where to write them.
+     */
+	public static void writeJson(List<Result> results, PrintStream out) {
+		out.println("[");
+		for (int i = 0; i < results.size(); i++) {
+			Result r = results.get(i);
+			out.print(String.format(Locale.ROOT,
+					"  {\"depth\": %d, \"threads\": %d, \"time_ms\": %.3f, \"nodes\": %d, " +
+					"\"nodes_per_sec\": %.0f, \"speedup\": %.3f, \"efficiency\": %.3f, \"search_overhead\": %.3f}",
+					r.getDepth(), r.getThreads(), r.getMillis(), r.getNodes(),
+					r.getNodesPerSecond(), r.getSpeedup(), r.getEfficiency(), r.getOverhead()));
+			out.println(i < results.size() - 1 ? "," : "");
+		}
+		out.println("]");
+	}
+
+    /**
+     * Runs the benchmark from the command line.
+     * Usage: scaling [--depths 3,4] [--threads 1,2,4] [--warmup N] [--repeat N]
+     *                [--positions file] [--format csv|json] [--out file]
+     * By default every thread count from 1 up to the number of processors is measured
+     * over the positions in the perft corpus.
+     *
+     * @param args - The command line arguments, after 'scaling'.
+     */
+	public static void run(String[] args) throws IOException {
+		int[] depths = {3, 4};
+		int[] threadCounts = null;
+		int warmups = 2, repeats = 5;
+		String positionFile = null, format = "csv", outFile = null;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--depths":
+					depths = parseInts(args[++i]);
+					break;
+				case "--threads":
+					threadCounts = parseInts(args[++i]);
+					break;
+				case "--warmup":
+					warmups = Integer.parseInt(args[++i]);
+					break;
+				case "--repeat":
+					repeats = Integer.parseInt(args[++i]);
+					break;
+				case "--positions":
+					positionFile = args[++i];
+					break;
+				case "--format":
+					format = args[++i];
+					break;
+				case "--out":
+					outFile = args[++i];
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		// Default to every thread count
+		if (threadCounts == null) {
+			threadCounts = new int[Runtime.getRuntime().availableProcessors()];
+			for (int i = 0; i < threadCounts.length; i++) {
+				threadCounts[i] = i + 1;
+			}
+		}
+
+		List<Result> results = new ScalingBenchmark(readPositions(positionFile), warmups, repeats)
+				.run(depths, threadCounts);
+
+		PrintStream out = outFile == null ? System.out : new PrintStream(outFile, "UTF-8");
+		try {
+			if (format.equals("json")) {
+				writeJson(results, out);
+			} else {
+				writeCsv(results, out);
+			}
+		} finally {
+			out.flush();
+			if (out != System.out) {
+				out.close();
+			}
+		}
+	}
+
+    /**
+     * Reads the positions to search.
+     *
+     * @param file - A file with one position per line, or null for the perft corpus.
+     * @return - The positions, without duplicates.
+     */
+	static List<Position> readPositions(String file) throws IOException {
+		Set<String> texts = new LinkedHashSet<>();
+
+		if (file == null) {
+			for (String[] entry : Perft.readCorpus()) {
+				texts.add(entry[0]);
+			}
+		} else {
+			for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					texts.add(line.split("\\s+")[0]);
+				}
+			}
+		}
+
+		List<Position> positions = new ArrayList<>();
+		for (String text : texts) {
+			positions.add(new Position(text));
+		}
+		return positions;
+	}
+
+    /**
+     * Parses a comma separated list of numbers.
+     *
+     * @param list - The list, e.g. "1,2,4".
+     * @return - The numbers.
+     */
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+}
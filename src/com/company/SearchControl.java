@@ -0,0 +1,74 @@
+package com.company;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets a running search be stopped.
+ * Every task of the search checks the flag before each move it tries,
+ * so a stop is noticed by all of the pool's workers within one move's work.
+ * A control can also stop the search by itself once it has searched enough boards.
+ * Each thread counts its boards on its own and adds them to the shared count in batches,
+ * so the limit can be overrun by up to a batch per thread.
+ */
+public class SearchControl {
+
+	// Most boards a thread counts before adding them to the shared count
+	private static final int MAX_BATCH = 1024;
+
+	private final long maxNodes;
+	private final int batch;
+	private final AtomicLong nodes = new AtomicLong();
+	private final ThreadLocal<int[]> pending = ThreadLocal.withInitial(() -> new int[1]);
+	private volatile boolean stopped;
+
+    /**
+     * Constructor.
+     * The search only stops when asked to.
+     */
+	public SearchControl() {
+		this(0);
+	}
+
+    /**
+     * Constructor.
+     *
+     * @param maxNodes - How many boards to search before stopping, or 0 for no limit.
+     */
+	public SearchControl(long maxNodes) {
+		this.maxNodes = maxNodes;
+
+		// Small limits get small batches, so they're still kept to closely
+		this.batch = (int) Math.max(1, Math.min(MAX_BATCH, maxNodes / 64));
+	}
+
+    /**
+     * Counts a board searched, stopping the search if that uses up the node limit.
+     */
+	void node() {
+		if (maxNodes > 0) {
+			int[] count = pending.get();
+			if (++count[0] == batch) {
+				count[0] = 0;
+				if (nodes.addAndGet(batch) >= maxNodes) {
+					stopped = true;
+				}
+			}
+		}
+	}
+
+    /**
+     * Asks the search to stop as soon as it can.
+     */
+	public void stop() {
+		stopped = true;
+	}
+
+    /**
+     * Getter for 'stopped' field.
+     *
+     * @return - True if the search has been asked to stop, false if not.
+     */
+	public boolean isStopped() {
+		return stopped;
+	}
+}
@@ -0,0 +1,54 @@
+package com.company;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one whole move search.
+ * Disabled by default, like every event of the engine.
+ * Turn them on with the settings in 'jfr/checkers.jfc', e.g.
+ * '-XX:StartFlightRecording:settings=default,settings=jfr/checkers.jfc'.
+ */
+@Name("com.company.Search")
+@Label("Move Search")
+@Category({"Checkers", "Search"})
+@Description("A search for the best move from one position")
+@Enabled(false)
+public class SearchEvent extends jdk.jfr.Event {
+
+	private static final EventType TYPE = EventType.getEventType(SearchEvent.class);
+
+	@Label("Position")
+	@Description("The root position, in the text form used by Position")
+	String position;
+
+	@Label("Depth")
+	@Description("How deep the search went")
+	int depth;
+
+	@Label("Nodes")
+	long nodes;
+
+	@Label("Threads")
+	@Description("Parallelism of the pool the search ran on")
+	int threads;
+
+    /**
+     * Starts an event if the event is enabled in a recording.
+     *
+     * @return - The started event, or null if it's disabled.
+     */
+	static SearchEvent start() {
+		if (!TYPE.isEnabled()) {
+			return null;
+		}
+
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		return event;
+	}
+}
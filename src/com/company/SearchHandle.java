@@ -0,0 +1,45 @@
+package com.company;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A search running in the background.
+ * The future completes with the best move once the search reaches its depth,
+ * runs out of time, or is stopped.
+ */
+public class SearchHandle {
+
+	private final CompletableFuture<SearchResult> future;
+	private final SearchControl control;
+
+    /**
+     * Constructor.
+     *
+     * @param future - Completes with the search's result.
+     * @param control - Stops the search.
+     */
+	SearchHandle(CompletableFuture<SearchResult> future, SearchControl control) {
+		this.future = future;
+		this.control = control;
+
+		// Cancelling the future shouldn't leave the workers searching
+		future.whenComplete((result, error) -> control.stop());
+	}
+
+    /**
+     * Getter for 'future' field.
+     *
+     * @return - Completes with the search's result.
+     */
+	public CompletableFuture<SearchResult> getFuture() {
+		return future;
+	}
+
+    /**
+     * Stops the search.
+     * The future still completes normally, with the best move of the deepest finished search.
+     */
+	public void stop() {
+		control.stop();
+	}
+}
@@ -0,0 +1,127 @@
+package com.company;
+
+/**
+ * How much work a search is allowed to do.
+ * Limits are immutable, the 'with' methods return a changed copy.
+ */
+public class SearchLimits {
+
+	private final int depth;
+	private final long timeMillis;
+	private final long maxNodes;
+	private final long seed;
+
+    /**
+     * Constructor.
+     *
+     * @param depth - How deep to search.
+     */
+	public SearchLimits(int depth) {
+		this(depth, 0, 0, 0);
+	}
+
+    /**
+     * Constructor.
+     *
+     * @param depth - How deep to search.
+     * @param timeMillis - How long the search may take, or 0 for no limit.
+     * @param maxNodes - How many boards the search may look at, or 0 for no limit.
+     * @param seed - Seed for breaking ties between equally good moves, or 0 to seed from the clock.
+     */
+	private SearchLimits(int depth, long timeMillis, long maxNodes, long seed) {
+		if (depth < 0) {
+			throw new IllegalArgumentException("Depth can't be negative: " + depth);
+		}
+		if (timeMillis < 0) {
+			throw new IllegalArgumentException("Time can't be negative: " + timeMillis);
+		}
+		if (maxNodes < 0) {
+			throw new IllegalArgumentException("Nodes can't be negative: " + maxNodes);
+		}
+		this.depth = depth;
+		this.timeMillis = timeMillis;
+		this.maxNodes = maxNodes;
+		this.seed = seed;
+	}
+
+    /**
+     * Creates a copy of these limits with a time limit.
+     * A search that runs out of time returns the best move of the deepest search it finished.
+     *
+     * @param timeMillis - How long the search may take, or 0 for no limit.
+     * @return - The new limits.
+     */
+	public SearchLimits withTimeMillis(long timeMillis) {
+		return new SearchLimits(depth, timeMillis, maxNodes, seed);
+	}
+
+    /**
+     * Creates a copy of these limits with a node limit.
+     * Like running out of time, a search over its node limit returns
+     * the best move of the deepest search it finished.
+     *
+     * @param maxNodes - How many boards the search may look at, or 0 for no limit.
+     * @return - The new limits.
+     */
+	public SearchLimits withMaxNodes(long maxNodes) {
+		return new SearchLimits(depth, timeMillis, maxNodes, seed);
+	}
+
+    /**
+     * Creates a copy of these limits with a different depth.
+     *
+     * @param depth - How deep to search.
+     * @return - The new limits.
+     */
+	public SearchLimits withDepth(int depth) {
+		return new SearchLimits(depth, timeMillis, maxNodes, seed);
+	}
+
+    /**
+     * Creates a copy of these limits with a seed for breaking ties.
+     * A seeded search to a fixed depth always picks the same move and searches the same number of boards,
+     * however many threads it runs on.
+     *
+     * @param seed - Seed for breaking ties between equally good moves, or 0 to seed from the clock.
+     * @return - The new limits.
+     */
+	public SearchLimits withSeed(long seed) {
+		return new SearchLimits(depth, timeMillis, maxNodes, seed);
+	}
+
+    /**
+     * Getter for 'depth' field.
+     *
+     * @return - How deep to search.
+     */
+	public int getDepth() {
+		return depth;
+	}
+
+    /**
+     * Getter for 'timeMillis' field.
+     *
+     * @return - How long the search may take, or 0 for no limit.
+     */
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+    /**
+     * Getter for 'maxNodes' field.
+     *
+     * @return - How many boards the search may look at, or 0 for no limit.
+     */
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+
+    /**
+     * Getter for 'seed' field.
+     *
+     * @return - Seed for breaking ties between equally good moves, or 0 to seed from the clock.
+     */
+	public long getSeed() {
+		return seed;
+	}
+}
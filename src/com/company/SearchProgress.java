@@ -0,0 +1,15 @@
+package com.company;
+
+/**
+ * A listener for searches running in the background.
+ * Called after every depth the search finishes, from one of the engine's threads.
+ */
+public interface SearchProgress {
+
+    /**
+     * Reports the best move found so far.
+     *
+     * @param result - The result of the deepest search finished.
+     */
+	void update(SearchResult result);
+}
@@ -0,0 +1,73 @@
+package com.company;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes every position an engine is asked to search to a corpus file, for replaying later.
+ * Each line is 'position depth', the same form the replay benchmark reads.
+ * Safe to share between threads. Recording is turned on for games by the 'checkers.record' system property.
+ */
+public class SearchRecorder implements AutoCloseable {
+
+	private final Writer out;
+
+    /**
+     * Constructor.
+     * Adds to the end of the file if it's already there.
+     *
+     * @param file - The corpus file.
+     */
+	public SearchRecorder(Path file) throws IOException {
+		this.out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+	}
+
+    /**
+     * Creates a recorder for the file named by the 'checkers.record' system property.
+     *
+     * @return - The recorder, or null if the property isn't set.
+     */
+	public static SearchRecorder fromProperty() {
+		String file = System.getProperty("checkers.record");
+		if (file == null) {
+			return null;
+		}
+
+		try {
+			return new SearchRecorder(Paths.get(file));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Can't record to " + file, e);
+		}
+	}
+
+    /**
+     * Records one search.
+     * Only the depth is kept from the limits, since a replay has to do exactly the same work every time.
+     *
+     * @param position - The position searched.
+     * @param limits - The search's limits.
+     */
+	public synchronized void record(Position position, SearchLimits limits) {
+		try {
+			out.write(position + " " + limits.getDepth() + "\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+    /**
+     * Writes out anything buffered and closes the file.
+     */
+	@Override
+	public synchronized void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,50 @@
+package com.company;
+
+/**
+ * What a search found.
+ */
+public class SearchResult {
+
+	private final Move move;
+	private final int score;
+	private final int depth;
+	private final long nodes;
+	private final long nanos;
+
+    /**
+     * Constructor.
+     *
+     * @param move - The best move, or null if there are no legal moves.
+     * @param score - The score of the best move.
+     * @param depth - How deep the search went.
+     * @param nodes - How many boards were searched.
+     * @param nanos - How long the search took.
+     */
+	public SearchResult(Move move, int score, int depth, long nodes, long nanos) {
+		this.move = move;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.nanos = nanos;
+	}
+
+	public Move getMove() {
+		return move;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+}
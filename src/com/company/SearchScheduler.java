@@ -0,0 +1,284 @@
+package com.company;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares search time fairly between many games.
+ * Searches are queued by deadline and run on a fixed number of lanes,
+ * each lane being an engine with its own small pool, so no search can hold
+ * more than one lane's worth of workers however deep its tree.
+ * Every search gets a budget of time or nodes from its limits.
+ * When more searches are waiting than there are lanes, waiting searches
+ * have their depth lowered to catch up, down to a minimum depth.
+ *
+ * Searches can also belong to a game, which has a budget of search time over all of its searches.
+ * The time each search takes is charged to its game, each search is cut short at what the game has left,
+ * and once a game has used its budget its searches only go to the minimum depth.
+ * Cancelling a search's future stops it, even once it's running.
+ */
+public class SearchScheduler implements AutoCloseable {
+
+	private final List<Engine> lanes = new ArrayList<>();
+	private final List<Thread> dispatchers = new ArrayList<>();
+	private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>();
+	private final int minDepth;
+	private final long defaultTimeMillis;
+	private final long gameBudgetMillis;
+
+	// Search time spent by each game
+	private final ConcurrentHashMap<Object, AtomicLong> spent = new ConcurrentHashMap<>();
+
+	// Breaks deadline ties in submission order
+	private final AtomicLong sequence = new AtomicLong();
+	private final LongAdder shed = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param laneCount - How many searches can run at once.
+     * @param threadsPerLane - The most workers a single search can use.
+     * @param minDepth - The shallowest a search can be cut to when shedding load.
+     * @param defaultTimeMillis - The budget of searches whose limits have no time,
+     *                            only used to place them in the queue.
+     */
+	public SearchScheduler(int laneCount, int threadsPerLane, int minDepth, long defaultTimeMillis) {
+		this(laneCount, threadsPerLane, minDepth, defaultTimeMillis, 0);
+	}
+
+    /**
+     * Constructor.
+     *
+     * @param laneCount - How many searches can run at once.
+     * @param threadsPerLane - The most workers a single search can use.
+     * @param minDepth - The shallowest a search can be cut to when shedding load.
+     * @param defaultTimeMillis - The budget of searches whose limits have no time,
+     *                            only used to place them in the queue.
+     * @param gameBudgetMillis - The search time each game gets over all of its searches, or 0 for no limit.
+     */
+	public SearchScheduler(int laneCount, int threadsPerLane, int minDepth, long defaultTimeMillis,
+						   long gameBudgetMillis) {
+		this.minDepth = minDepth;
+		this.defaultTimeMillis = defaultTimeMillis;
+		this.gameBudgetMillis = gameBudgetMillis;
+
+		for (int i = 0; i < laneCount; i++) {
+			Engine engine = new Engine(threadsPerLane);
+			Thread dispatcher = new Thread(() -> dispatch(engine), "search-lane-" + i);
+			dispatcher.setDaemon(true);
+
+			lanes.add(engine);
+			dispatchers.add(dispatcher);
+			dispatcher.start();
+		}
+	}
+
+    /**
+     * Queues a search.
+     *
+     * @param position - The position to search.
+     * @param limits - The search's depth and its budget of time or nodes.
+     * @return - Completes with the result once the search has run.
+     */
+	public CompletableFuture<SearchResult> submit(Position position, SearchLimits limits) {
+		return submit(null, position, limits);
+	}
+
+    /**
+     * Queues a search for a game, charging its time to the game.
+     *
+     * @param game - The game searching, any object used as a key, or null for none.
+     * @param position - The position to search.
+     * @param limits - The search's depth and its budget of time or nodes.
+     * @return - Completes with the result once the search has run. Cancelling it stops the search.
+     */
+	public CompletableFuture<SearchResult> submit(Object game, Position position, SearchLimits limits) {
+		long budget = limits.getTimeMillis() > 0 ? limits.getTimeMillis() : defaultTimeMillis;
+		Job job = new Job(game, position, limits, System.currentTimeMillis() + budget, sequence.getAndIncrement());
+		queue.add(job);
+		return job.future;
+	}
+
+    /**
+     * Forgets a game's spent time, once the game is over.
+     *
+     * @param game - The game's key.
+     */
+	public void release(Object game) {
+		spent.remove(game);
+	}
+
+    /**
+     * Finds how much search time a game has used.
+     *
+     * @param game - The game's key.
+     * @return - The time in milliseconds, 0 for a game that hasn't searched.
+     */
+	public long getSpentMillis(Object game) {
+		AtomicLong nanos = spent.get(game);
+		return nanos == null ? 0 : nanos.get() / 1_000_000;
+	}
+
+    /**
+     * Getter for the queue length.
+     *
+     * @return - How many searches are waiting for a lane.
+     */
+	public int getQueued() {
+		return queue.size();
+	}
+
+    /**
+     * Getter for the shed count.
+     *
+     * @return - How many searches have had their depth lowered.
+     */
+	public long getShed() {
+		return shed.sum();
+	}
+
+    /**
+     * Getter for the completed count.
+     *
+     * @return - How many searches have finished.
+     */
+	public long getCompleted() {
+		return completed.sum();
+	}
+
+    /**
+     * Runs queued searches on one lane, earliest deadline first.
+     *
+     * @param engine - The lane's engine.
+     */
+	private void dispatch(Engine engine) {
+		while (!Thread.currentThread().isInterrupted()) {
+			Job job;
+			try {
+				job = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (job.future.isDone()) {
+				continue;
+			}
+
+			long start = System.nanoTime();
+			SearchResult result = null;
+			Throwable error = null;
+			try {
+				// Cancelling the job stops the search, which then ends with its deepest finished level
+				SearchHandle handle = engine.searchAsync(job.position, limitsFor(job), null);
+				job.future.whenComplete((done, failed) -> handle.stop());
+				result = handle.getFuture().join();
+			} catch (Throwable t) {
+				error = t;
+			}
+
+			// Charge the game before anyone waiting on the search sees it finish
+			if (job.game != null) {
+				spent.computeIfAbsent(job.game, game -> new AtomicLong()).addAndGet(System.nanoTime() - start);
+			}
+			completed.increment();
+			if (error == null) {
+				job.future.complete(result);
+			} else {
+				job.future.completeExceptionally(error);
+			}
+		}
+	}
+
+    /**
+     * Works out the limits a search actually runs with.
+     * The time limit becomes whatever is left before the deadline,
+     * and the depth drops by one for every lane's worth of searches still waiting.
+     * A search for a game is also held to what's left of the game's budget.
+     *
+     * @param job - The search about to run.
+     * @return - Its limits.
+     */
+	private SearchLimits limitsFor(Job job) {
+		SearchLimits limits = job.limits;
+
+		// Shed load
+		int backlog = queue.size() / lanes.size();
+		int depth = Math.max(Math.min(minDepth, limits.getDepth()), limits.getDepth() - backlog);
+		if (depth < limits.getDepth()) {
+			shed.increment();
+			limits = limits.withDepth(depth);
+		}
+
+		// Keep to the deadline, even if it's already been missed
+		if (job.limits.getTimeMillis() > 0) {
+			limits = limits.withTimeMillis(Math.max(1, job.deadline - System.currentTimeMillis()));
+		}
+
+		// Keep to the game's budget, only playing at the minimum depth once it's used up
+		if (job.game != null && gameBudgetMillis > 0) {
+			long left = gameBudgetMillis - getSpentMillis(job.game);
+			if (left <= 0) {
+				if (limits.getDepth() > minDepth) {
+					shed.increment();
+					limits = limits.withDepth(minDepth);
+				}
+			} else if (limits.getTimeMillis() == 0 || limits.getTimeMillis() > left) {
+				limits = limits.withTimeMillis(left);
+			}
+		}
+
+		return limits;
+	}
+
+    /**
+     * Stops every lane.
+     * Searches still waiting are cancelled.
+     */
+	@Override
+	public void close() {
+		for (Thread dispatcher : dispatchers) {
+			dispatcher.interrupt();
+		}
+		for (Job job : queue) {
+			job.future.cancel(false);
+		}
+		queue.clear();
+		for (Engine engine : lanes) {
+			engine.close();
+		}
+	}
+
+	/**
+	 * A queued search.
+	 */
+	private static class Job implements Comparable<Job> {
+
+		private final Object game;
+		private final Position position;
+		private final SearchLimits limits;
+		private final long deadline;
+		private final long order;
+		private final CompletableFuture<SearchResult> future = new CompletableFuture<>();
+
+		private Job(Object game, Position position, SearchLimits limits, long deadline, long order) {
+			this.game = game;
+			this.position = position;
+			this.limits = limits;
+			this.deadline = deadline;
+			this.order = order;
+		}
+
+		@Override
+		public int compareTo(Job other) {
+			if (deadline != other.deadline) {
+				return Long.compare(deadline, other.deadline);
+			}
+			return Long.compare(order, other.order);
+		}
+	}
+}
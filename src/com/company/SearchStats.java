@@ -0,0 +1,286 @@
+package com.company;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Counters collected by the search.
+ * Every counter is striped, so the pool's workers can update them without contending,
+ * and reading them through 'snapshot' never blocks the search.
+ * One set of stats can be shared by any number of searches.
+ */
+public class SearchStats {
+
+	// Deepest ply tracked separately, anything deeper is added to the last one
+	public static final int MAX_PLY = 64;
+
+	// Runs every periodic summary
+	private static final ScheduledExecutorService REPORTER = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "search-stats");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ForkJoinPool pool;
+	private final long startNanos;
+	private final long startSteals;
+
+	private final LongAdder nodes = new LongAdder();
+	private final LongAdder leafEvals = new LongAdder();
+	private final LongAdder evaluations = new LongAdder();
+	private final LongAdder movesGenerated = new LongAdder();
+	private final LongAdder stopped = new LongAdder();
+	private final LongAdder[] plyNodes = new LongAdder[MAX_PLY];
+	private final LongAdder[] plyNanos = new LongAdder[MAX_PLY];
+
+    /**
+     * Constructor.
+     *
+     * @param pool - The pool the search runs on, or null to skip pool statistics.
+     */
+	public SearchStats(ForkJoinPool pool) {
+		this.pool = pool;
+		this.startNanos = System.nanoTime();
+		this.startSteals = pool == null ? 0 : pool.getStealCount();
+
+		for (int i = 0; i < MAX_PLY; i++) {
+			plyNodes[i] = new LongAdder();
+			plyNanos[i] = new LongAdder();
+		}
+	}
+
+    /**
+     * Records a board being searched.
+     *
+     * @param ply - How deep the board is.
+     * @param moves - How many legal moves it has.
+     */
+	void node(int ply, int moves) {
+		nodes.increment();
+		movesGenerated.add(moves);
+		plyNodes[Math.min(ply, MAX_PLY - 1)].increment();
+	}
+
+    /**
+     * Records the time spent searching a board, including everything below it.
+     *
+     * @param ply - How deep the board is.
+     * @param nanos - How long it took.
+     */
+	void time(int ply, long nanos) {
+		plyNanos[Math.min(ply, MAX_PLY - 1)].add(nanos);
+	}
+
+    /**
+     * Records a board at the depth limit, scored but never searched itself, so not counted as a node.
+     */
+	void leafEval() {
+		leafEvals.increment();
+	}
+
+    /**
+     * Records calls to 'Board.getScore'.
+     *
+     * @param count - How many calls were made.
+     */
+	void evaluations(int count) {
+		evaluations.add(count);
+	}
+
+    /**
+     * Records a board whose remaining moves were given up on because the search was stopped or cancelled.
+     */
+	void stopped() {
+		stopped.increment();
+	}
+
+    /**
+     * Reads every counter.
+     * Counters are read one at a time while the search may still be running,
+     * so the values are close to, but not exactly, a single moment.
+     *
+     * @return - The current values.
+     */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+    /**
+     * Hands a snapshot to the consumer at a fixed rate until cancelled.
+     *
+     * @param period - How often to take a snapshot.
+     * @param unit - The unit of the period.
+     * @param consumer - What to do with each snapshot, e.g. print its summary.
+     * @return - The scheduled reporting, cancel it to stop.
+     */
+	public ScheduledFuture<?> startReporting(long period, TimeUnit unit, Consumer<Snapshot> consumer) {
+		return REPORTER.scheduleAtFixedRate(() -> consumer.accept(snapshot()), period, period, unit);
+	}
+
+	/**
+	 * The counters at one moment.
+	 */
+	public static class Snapshot {
+
+		private final long nanos;
+		private final long nodes;
+		private final long leafEvals;
+		private final long evaluations;
+		private final long movesGenerated;
+		private final long stopped;
+		private final long[] plyNodes;
+		private final long[] plyNanos;
+		private final long steals;
+		private final long queuedTasks;
+		private final int activeThreads;
+		private final int poolSize;
+
+		private Snapshot(SearchStats stats) {
+			this.nanos = Math.max(1, System.nanoTime() - stats.startNanos);
+			this.nodes = stats.nodes.sum();
+			this.leafEvals = stats.leafEvals.sum();
+			this.evaluations = stats.evaluations.sum();
+			this.movesGenerated = stats.movesGenerated.sum();
+			this.stopped = stats.stopped.sum();
+
+			// Only keep the plies that were reached
+			int deepest = 0;
+			for (int i = 0; i < MAX_PLY; i++) {
+				if (stats.plyNodes[i].sum() > 0) {
+					deepest = i + 1;
+				}
+			}
+			this.plyNodes = new long[deepest];
+			this.plyNanos = new long[deepest];
+			for (int i = 0; i < deepest; i++) {
+				plyNodes[i] = stats.plyNodes[i].sum();
+				plyNanos[i] = stats.plyNanos[i].sum();
+			}
+
+			ForkJoinPool pool = stats.pool;
+			this.steals = pool == null ? 0 : pool.getStealCount() - stats.startSteals;
+			this.queuedTasks = pool == null ? 0 : pool.getQueuedTaskCount();
+			this.activeThreads = pool == null ? 0 : pool.getActiveThreadCount();
+			this.poolSize = pool == null ? 0 : pool.getPoolSize();
+		}
+
+		public long getElapsedNanos() {
+			return nanos;
+		}
+
+		public long getNodes() {
+			return nodes;
+		}
+
+		public long getLeafEvals() {
+			return leafEvals;
+		}
+
+		public long getEvaluations() {
+			return evaluations;
+		}
+
+		public long getStopped() {
+			return stopped;
+		}
+
+        /**
+         * Every board looked at per second, both the nodes searched and the leaf boards only scored.
+         *
+         * @return - The boards per second.
+         */
+		public double getPositionsPerSecond() {
+			return (nodes + leafEvals) * 1e9 / nanos;
+		}
+
+        /**
+         * The average number of legal moves of the boards searched.
+         * Kept apart from the effective branching factor, which counts the boards actually reached.
+         *
+         * @return - The average, or 0 if nothing was searched.
+         */
+		public double getAverageMoves() {
+			return nodes == 0 ? 0 : (double) movesGenerated / nodes;
+		}
+
+        /**
+         * The effective branching factor, the depth-th root of every board looked at.
+         * The boards only scored sit one ply below the deepest searched, so that's the depth used.
+         *
+         * @return - The branching factor, or 0 if nothing was searched.
+         */
+		public double getEffectiveBranching() {
+			return plyNodes.length == 0 ? 0 : Math.pow(nodes + leafEvals, 1.0 / plyNodes.length);
+		}
+
+        /**
+         * The branching factor between each ply and the next, from the boards searched at each.
+         * The last entry is from the deepest ply searched to the boards only scored below it.
+         *
+         * @return - The ratios, indexed by the upper ply.
+         */
+		public double[] getPlyBranching() {
+			double[] branching = new double[plyNodes.length];
+			for (int i = 0; i < plyNodes.length; i++) {
+				long below = i + 1 < plyNodes.length ? plyNodes[i + 1] : leafEvals;
+				branching[i] = plyNodes[i] == 0 ? 0 : (double) below / plyNodes[i];
+			}
+			return branching;
+		}
+
+        /**
+         * How many boards were searched at each ply.
+         *
+         * @return - The counts, indexed by ply.
+         */
+		public long[] getPlyNodes() {
+			return plyNodes.clone();
+		}
+
+        /**
+         * Time spent at each ply, summed over every worker.
+         * Includes the time spent on the plies below, so it shrinks with depth.
+         *
+         * @return - The times in nanoseconds, indexed by ply.
+         */
+		public long[] getPlyNanos() {
+			return plyNanos.clone();
+		}
+
+		public long getSteals() {
+			return steals;
+		}
+
+		public long getQueuedTasks() {
+			return queuedTasks;
+		}
+
+		public int getActiveThreads() {
+			return activeThreads;
+		}
+
+		public int getPoolSize() {
+			return poolSize;
+		}
+
+        /**
+         * A one line summary, used for the periodic reports.
+         *
+         * @return - The summary.
+         */
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT,
+					"%d ms: %d nodes, %d leaf evals, %d evals, %.0f positions/s, %.2f branching, %.2f avg moves, " +
+					"%d stopped, %d steals, %d queued, %d/%d threads active",
+					nanos / 1_000_000, nodes, leafEvals, evaluations, getPositionsPerSecond(), getEffectiveBranching(),
+					getAverageMoves(), stopped, steals, queuedTasks, activeThreads, poolSize);
+		}
+	}
+}
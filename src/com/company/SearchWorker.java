@@ -0,0 +1,173 @@
+package com.company;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Scores root moves for a DistributedSearch running in another process.
+ * Each request holds a position in the binary form of Position, a depth and the index of
+ * one of the position's legal moves, and is answered with that move's score and node count.
+ * Requests on one connection are answered in order; connections are served in parallel.
+ */
+public class SearchWorker implements Runnable {
+
+	private final ServerSocket server;
+	private final ForkJoinPool pool;
+
+    /**
+     * Constructor.
+     * Binds to the port straight away.
+     *
+     * @param port - The port to listen on, or 0 for any free port.
+     * @param threads - How many threads to search with.
+     */
+	public SearchWorker(int port, int threads) throws IOException {
+		this.server = new ServerSocket();
+		this.server.bind(new InetSocketAddress(port));
+		this.pool = new ForkJoinPool(threads);
+	}
+
+    /**
+     * Getter for the port.
+     *
+     * @return - The port the worker is listening on.
+     */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+    /**
+     * Accepts coordinators until the server socket is closed.
+     */
+	@Override
+	public void run() {
+		try {
+			while (!server.isClosed()) {
+				Socket socket = server.accept();
+				Thread thread = new Thread(() -> serve(socket), "search-worker-" + socket.getPort());
+				thread.setDaemon(true);
+				thread.start();
+			}
+		} catch (IOException e) {
+			if (!server.isClosed()) {
+				throw new IllegalStateException("Worker failed", e);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+    /**
+     * Stops accepting coordinators.
+     */
+	public void close() throws IOException {
+		server.close();
+	}
+
+    /**
+     * Answers requests on one connection until the coordinator hangs up.
+     *
+     * @param socket - The connection.
+     */
+	private void serve(Socket socket) {
+		try (Socket s = socket) {
+			s.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+
+			while (true) {
+				// Read the request
+				byte[] bytes;
+				try {
+					bytes = new byte[in.readUnsignedByte()];
+				} catch (EOFException e) {
+					return;
+				}
+				in.readFully(bytes);
+				int depth = in.readInt();
+				int index = in.readInt();
+
+				// Score the move
+				checkRequest(bytes, depth);
+				Position position = new Position(bytes);
+				ArrayList<Move> moves = position.getLegalMoves();
+				if (index < 0 || index >= moves.size()) {
+					throw new IOException("No move " + index + " in " + position);
+				}
+				Tuple<Integer, Long> scored = pool.invoke(ForkJoinTask.adapt(() -> AITask.scoreRootMove(
+						position.getBoard(), position.getPlayer(), moves.get(index), depth)));
+
+				out.writeInt(scored.getKey());
+				out.writeLong(scored.getVal());
+				out.flush();
+			}
+		} catch (IOException e) {
+			// The coordinator went away or sent a bad request, it'll give the move to another worker
+		}
+	}
+
+    /**
+     * Checks a request before anything is built from it.
+     *
+     * @param bytes - The position, in the binary form of Position.
+     * @param depth - How deep to search.
+     * @throws IOException - If the request isn't one a coordinator would send.
+     */
+	private static void checkRequest(byte[] bytes, int depth) throws IOException {
+		if (depth < 1) {
+			throw new IOException("Bad depth: " + depth);
+		}
+
+		// The size has to match the length, and fit within the 64 valid squares a board can have
+		int size = bytes.length == 0 ? 0 : bytes[0] & 0x7f;
+		if (size < 2 || size * size / 2 > 64 || bytes.length != 1 + (size * size / 2 + 1) / 2) {
+			throw new IOException("Bad position of " + bytes.length + " bytes");
+		}
+
+		// Every square has to be a state
+		int states = SqState.values().length;
+		for (int k = 0; k < size * size / 2; k++) {
+			if (((bytes[1 + k / 2] >> (k % 2 == 0 ? 0 : 4)) & 0xf) >= states) {
+				throw new IOException("Bad square " + k + " in position");
+			}
+		}
+	}
+
+    /**
+     * Runs a worker from the command line.
+     * Usage: worker [--port N] [--threads N]
+     *
+     * @param args - The command line arguments, after 'worker'.
+     */
+	public static void run(String[] args) throws IOException {
+		int port = 7800;
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		SearchWorker worker = new SearchWorker(port, threads);
+		System.out.println("Worker listening on port " + worker.getPort());
+		worker.run();
+	}
+}
@@ -0,0 +1,46 @@
+package com.company;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering one AITask, from being forked to being joined.
+ * Disabled by default.
+ */
+@Name("com.company.Split")
+@Label("Search Split")
+@Category({"Checkers", "Search"})
+@Description("A subtree of the search handed to the pool")
+@Enabled(false)
+public class SplitEvent extends jdk.jfr.Event {
+
+	private static final EventType TYPE = EventType.getEventType(SplitEvent.class);
+
+	@Label("Ply")
+	int ply;
+
+	@Label("Position")
+	String position;
+
+	@Label("Nodes")
+	long nodes;
+
+    /**
+     * Starts an event if the event is enabled in a recording.
+     *
+     * @return - The started event, or null if it's disabled.
+     */
+	static SplitEvent start() {
+		if (!TYPE.isEnabled()) {
+			return null;
+		}
+
+		SplitEvent event = new SplitEvent();
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,65 @@
+package com.company;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Draws the game as text, the board after every move.
+ * Everything goes through one buffer, so a fast game costs a few large writes
+ * rather than a print per square.
+ */
+public class TextOutput implements GameOutput {
+
+	// Big enough for a few dozen boards
+	private static final int BUFFER = 1 << 16;
+
+	private final Writer out;
+	private final boolean flushEveryMove;
+
+    /**
+     * Constructor.
+     *
+     * @param out - Where to write, left open when this is closed.
+     * @param flushEveryMove - Whether to write out every move straight away, for when someone's watching.
+     */
+	public TextOutput(OutputStream out, boolean flushEveryMove) {
+		this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER);
+		this.flushEveryMove = flushEveryMove;
+	}
+
+	@Override
+	public void start(Position position) throws IOException {
+		out.write(position.getBoard().toString());
+		if (flushEveryMove) {
+			out.flush();
+		}
+	}
+
+	@Override
+	public void moved(Move move, Position position) throws IOException {
+		out.write(move.toString());
+		out.write(System.lineSeparator());
+		out.write(position.getBoard().toString());
+		if (flushEveryMove) {
+			out.flush();
+		}
+	}
+
+	@Override
+	public void note(String text) throws IOException {
+		out.write(text);
+		out.write(System.lineSeparator());
+		if (flushEveryMove) {
+			out.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.flush();
+	}
+}
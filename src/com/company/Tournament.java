@@ -0,0 +1,436 @@
+package com.company;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Plays engine against engine, many games at once.
+ * Every game is played by its own thread, while the searches of all games
+ * share the one engine and its bounded pool.
+ * Games are played in pairs from the same randomized opening, with colors swapped,
+ * so neither side is favored by the openings drawn.
+ */
+public class Tournament {
+
+	private final Engine engine;
+	private final SearchLimits[] sides;
+	private final int randomPlies;
+	private final int maxPlies;
+	private final long seed;
+
+    /**
+     * Constructor.
+     *
+     * @param engine - The engine both sides search with.
+     * @param sideA - The limits of the first side.
+     * @param sideB - The limits of the second side.
+     * @param randomPlies - How many random moves to start each opening with.
+     * @param maxPlies - How many moves until a game is called a draw.
+     * @param seed - Seed for the openings.
+     */
+	public Tournament(Engine engine, SearchLimits sideA, SearchLimits sideB, int randomPlies, int maxPlies, long seed) {
+		this.engine = engine;
+		this.sides = new SearchLimits[]{sideA, sideB};
+		this.randomPlies = randomPlies;
+		this.maxPlies = maxPlies;
+		this.seed = seed;
+	}
+
+    /**
+     * Plays the games.
+     *
+     * @param games - How many games to play.
+     * @param concurrency - How many games to play at once.
+     * @param progressEvery - Print a summary after this many games, or 0 to stay quiet.
+     * @return - The totals over every game.
+     */
+	public Result run(int games, int concurrency, int progressEvery) throws InterruptedException {
+		Result result = new Result();
+		Semaphore slots = new Semaphore(concurrency);
+		List<Future<?>> running = new ArrayList<>();
+
+		ExecutorService players = newGameExecutor(concurrency);
+		try {
+			for (int i = 0; i < games; i++) {
+				int game = i;
+				slots.acquire();
+				running.add(players.submit(() -> {
+					try {
+						int played = result.add(play(game));
+						if (progressEvery > 0 && played % progressEvery == 0) {
+							System.out.println(result.summary());
+						}
+					} finally {
+						slots.release();
+					}
+				}));
+			}
+
+			// Surface any failed game
+			for (Future<?> future : running) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Game failed", e.getCause());
+				}
+			}
+		} finally {
+			players.shutdown();
+		}
+
+		return result;
+	}
+
+    /**
+     * Plays one game.
+     * Side A is black in even games and white in odd ones.
+     *
+     * @param game - Which game this is.
+     * @return - How the game went.
+     */
+	GameRecord play(int game) {
+		// Both games of a pair get the same opening
+		Position position = opening(new Random(seed + game / 2));
+		int sideOfBlack = game % 2;
+
+		GameRecord record = new GameRecord(sideOfBlack);
+		while (record.plies < maxPlies) {
+			int side = position.getPlayer() == SqState.BLACK ? sideOfBlack : 1 - sideOfBlack;
+
+			SearchResult searched = engine.search(position, sides[side]);
+			if (searched.getMove() == null) {
+				break;
+			}
+			record.addMoveTime(side, searched.getNanos());
+
+			position = position.afterMove(searched.getMove());
+			record.plies++;
+
+			// The player left to move with no moves loses
+			if (position.getLegalMoves().isEmpty()) {
+				record.winner = position.getPlayer() == SqState.BLACK ? 1 - sideOfBlack : sideOfBlack;
+				return record;
+			}
+		}
+
+		// Out of moves without a winner
+		record.winner = -1;
+		return record;
+	}
+
+    /**
+     * Makes an opening by playing random moves from the start.
+     * Retries if the random moves happen to end the game.
+     *
+     * @param rand - Chooses the moves.
+     * @return - The opening position.
+     */
+	private Position opening(Random rand) {
+		while (true) {
+			Position position = new Position(new Board(8, 8), SqState.BLACK);
+			for (int i = 0; i < randomPlies; i++) {
+				ArrayList<Move> moves = position.getLegalMoves();
+
+				// The game ended early, so the check below starts a new opening
+				if (moves.isEmpty()) {
+					break;
+				}
+				position = position.afterMove(moves.get(rand.nextInt(moves.size())));
+			}
+
+			if (!position.getLegalMoves().isEmpty()) {
+				return position;
+			}
+		}
+	}
+
+    /**
+     * Creates the executor that plays the games.
+     * Uses a virtual thread per game when the JVM has them (Java 21 and up),
+     * and otherwise a platform thread per concurrent game.
+     * Game threads spend nearly all their time waiting on the search pool, so either works.
+     *
+     * @param concurrency - How many games are played at once.
+     * @return - The executor.
+     */
+	private static ExecutorService newGameExecutor(int concurrency) {
+		try {
+			Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtual.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(concurrency);
+		}
+	}
+
+	/**
+	 * How one game went.
+	 */
+	static class GameRecord {
+
+		private final int sideOfBlack;
+		private final long[][] moveNanos = new long[2][16];
+		private final int[] moves = new int[2];
+		private int plies;
+		private int winner;
+
+		private GameRecord(int sideOfBlack) {
+			this.sideOfBlack = sideOfBlack;
+		}
+
+		private void addMoveTime(int side, long nanos) {
+			if (moves[side] == moveNanos[side].length) {
+				moveNanos[side] = Arrays.copyOf(moveNanos[side], moves[side] * 2);
+			}
+			moveNanos[side][moves[side]++] = nanos;
+		}
+	}
+
+	/**
+	 * Totals over every game, from side A's point of view.
+	 */
+	public static class Result {
+
+		private int wins, losses, draws;
+		private int winsAsBlack, gamesAsBlack;
+		private long[] lengths = new long[64];
+		private final long[][] moveNanos = {new long[1024], new long[1024]};
+		private final int[] moves = new int[2];
+
+        /**
+         * Adds a game to the totals.
+         *
+         * @param record - The game.
+         * @return - How many games have been added, including this one.
+         */
+		synchronized int add(GameRecord record) {
+			int games = getGames();
+
+			if (record.winner == 0) {
+				wins++;
+			} else if (record.winner == 1) {
+				losses++;
+			} else {
+				draws++;
+			}
+			if (record.sideOfBlack == 0) {
+				gamesAsBlack++;
+				if (record.winner == 0) {
+					winsAsBlack++;
+				}
+			}
+
+			if (games == lengths.length) {
+				lengths = Arrays.copyOf(lengths, games * 2);
+			}
+			lengths[games] = record.plies;
+
+			for (int side = 0; side < 2; side++) {
+				int needed = moves[side] + record.moves[side];
+				if (needed > moveNanos[side].length) {
+					moveNanos[side] = Arrays.copyOf(moveNanos[side], Math.max(needed, moveNanos[side].length * 2));
+				}
+				System.arraycopy(record.moveNanos[side], 0, moveNanos[side], moves[side], record.moves[side]);
+				moves[side] = needed;
+			}
+
+			return games + 1;
+		}
+
+		public synchronized int getGames() {
+			return wins + losses + draws;
+		}
+
+		public synchronized int getWins() {
+			return wins;
+		}
+
+		public synchronized int getLosses() {
+			return losses;
+		}
+
+		public synchronized int getDraws() {
+			return draws;
+		}
+
+        /**
+         * Side A's share of the points, a draw being worth half a win.
+         *
+         * @return - The score, between 0 and 1.
+         */
+		public synchronized double getScore() {
+			int games = getGames();
+			return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+		}
+
+        /**
+         * The Elo difference of side A over side B implied by the score.
+         *
+         * @return - The difference, infinite if one side won every game.
+         */
+		public synchronized double getElo() {
+			return elo(getScore());
+		}
+
+        /**
+         * Half the width of the 95% confidence interval of the Elo difference.
+         * Based on the standard error of the per-game scores.
+         *
+         * @return - The error margin, infinite when there's too little to go on.
+         */
+		public synchronized double getEloError() {
+			int games = getGames();
+			if (games < 2) {
+				return Double.POSITIVE_INFINITY;
+			}
+
+			double score = getScore();
+			double variance = (wins * Math.pow(1 - score, 2) +
+					draws * Math.pow(0.5 - score, 2) +
+					losses * Math.pow(score, 2)) / games;
+			double margin = 1.96 * Math.sqrt(variance / games);
+
+			return (elo(Math.min(score + margin, 1)) - elo(Math.max(score - margin, 0))) / 2;
+		}
+
+		private static double elo(double score) {
+			if (score <= 0) {
+				return Double.NEGATIVE_INFINITY;
+			}
+			if (score >= 1) {
+				return Double.POSITIVE_INFINITY;
+			}
+			return -400 * Math.log10(1 / score - 1);
+		}
+
+        /**
+         * A one line summary of the results so far.
+         *
+         * @return - The summary.
+         */
+		public synchronized String summary() {
+			return String.format(Locale.ROOT, "%d games: +%d -%d =%d, score %.3f, Elo %+.1f +/- %.1f",
+					getGames(), wins, losses, draws, getScore(), getElo(), getEloError());
+		}
+
+        /**
+         * The full report: results, game lengths and the move time distribution of each side.
+         *
+         * @return - The report, several lines long.
+         */
+		public synchronized String report() {
+			StringBuilder out = new StringBuilder(summary()).append(System.lineSeparator());
+			out.append(String.format(Locale.ROOT, "Side A won %d of %d games as black",
+					winsAsBlack, gamesAsBlack)).append(System.lineSeparator());
+
+			long[] sorted = Arrays.copyOf(lengths, getGames());
+			Arrays.sort(sorted);
+			out.append(String.format(Locale.ROOT, "Game length (plies): mean %.1f, p50 %d, p90 %d, max %d",
+					mean(sorted), percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 100)))
+					.append(System.lineSeparator());
+
+			for (int side = 0; side < 2; side++) {
+				sorted = Arrays.copyOf(moveNanos[side], moves[side]);
+				Arrays.sort(sorted);
+				out.append(String.format(Locale.ROOT,
+						"Side %s move time (ms): mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f, max %.2f over %d moves",
+						side == 0 ? "A" : "B", mean(sorted) / 1e6, percentile(sorted, 50) / 1e6,
+						percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6,
+						percentile(sorted, 100) / 1e6, sorted.length))
+						.append(System.lineSeparator());
+			}
+
+			return out.toString();
+		}
+
+		private static double mean(long[] values) {
+			return values.length == 0 ? 0 : Arrays.stream(values).average().getAsDouble();
+		}
+
+		private static long percentile(long[] sorted, int percent) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+			return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+		}
+	}
+
+    /**
+     * Runs a tournament from the command line.
+     * Usage: tournament [--games N] [--concurrency N] [--threads N]
+     *                   [--depth-a N] [--depth-b N] [--time-a ms] [--time-b ms]
+     *                   [--random-plies N] [--max-plies N] [--seed N]
+     * Every search is recorded to the file named by the 'checkers.record' system property, if set.
+     *
+     * @param args - The command line arguments, after 'tournament'.
+     */
+	public static void run(String[] args) throws IOException, InterruptedException {
+		int games = 1000, concurrency = 64;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int depthA = 3, depthB = 3, randomPlies = 4, maxPlies = 200;
+		long timeA = 0, timeB = 0, seed = 1;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--games":
+					games = Integer.parseInt(args[++i]);
+					break;
+				case "--concurrency":
+					concurrency = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--depth-a":
+					depthA = Integer.parseInt(args[++i]);
+					break;
+				case "--depth-b":
+					depthB = Integer.parseInt(args[++i]);
+					break;
+				case "--time-a":
+					timeA = Long.parseLong(args[++i]);
+					break;
+				case "--time-b":
+					timeB = Long.parseLong(args[++i]);
+					break;
+				case "--random-plies":
+					randomPlies = Integer.parseInt(args[++i]);
+					break;
+				case "--max-plies":
+					maxPlies = Integer.parseInt(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		try (Engine engine = new Engine(threads); SearchRecorder recorder = SearchRecorder.fromProperty()) {
+			engine.setRecorder(recorder);
+			Tournament tournament = new Tournament(engine,
+					new SearchLimits(depthA).withTimeMillis(timeA),
+					new SearchLimits(depthB).withTimeMillis(timeB),
+					randomPlies, maxPlies, seed);
+
+			long start = System.currentTimeMillis();
+			Result result = tournament.run(games, concurrency, Math.max(1, games / 10));
+			long elapsed = System.currentTimeMillis() - start;
+
+			System.out.println();
+			System.out.print(result.report());
+			System.out.println("Time taken: " + elapsed + " ms");
+		}
+	}
+}
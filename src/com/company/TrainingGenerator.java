@@ -0,0 +1,349 @@
+package com.company;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Plays engine games against itself and writes a sample of their positions as training data.
+ * Games are played side by side, and each finished game's records are queued for the shard writers.
+ * The queue is bounded, so games wait for the writers rather than piling up in memory.
+ * Each shard has its own writer thread and file, in the format of TrainingRecord,
+ * and is optionally gzipped.
+ */
+public class TrainingGenerator {
+
+	// Bytes buffered by each writer before going to its channel
+	private static final int WRITE_BUFFER = 1 << 16;
+
+	// Tells a writer there are no more games
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+	private final Engine engine;
+	private final SearchLimits limits;
+	private final int randomPlies;
+	private final int maxPlies;
+	private final double sampleRate;
+	private final long seed;
+
+    /**
+     * Constructor.
+     *
+     * @param engine - The engine both sides search with.
+     * @param limits - The limits of both sides.
+     * @param randomPlies - How many random moves to start each game with, these aren't sampled.
+     * @param maxPlies - How many moves until a game is called a draw.
+     * @param sampleRate - The chance of each searched position being written, from 0 to 1.
+     * @param seed - Seed for the openings and the sampling.
+     */
+	public TrainingGenerator(Engine engine, SearchLimits limits, int randomPlies, int maxPlies, double sampleRate,
+							 long seed) {
+		this.engine = engine;
+		this.limits = limits;
+		this.randomPlies = randomPlies;
+		this.maxPlies = maxPlies;
+		this.sampleRate = sampleRate;
+		this.seed = seed;
+	}
+
+    /**
+     * Plays the games and writes their records.
+     * Shards are named 'shard-00000.bin', with '.gz' added when compressed, and replace any already there.
+     *
+     * @param games - How many games to play.
+     * @param concurrency - How many games to play at once.
+     * @param dir - The directory to write the shards to.
+     * @param shards - How many shard files to spread the records over.
+     * @param gzip - True to compress the shards, false to leave them ready to be mapped.
+     * @return - How many records were written.
+     */
+	public long run(int games, int concurrency, Path dir, int shards, boolean gzip)
+			throws IOException, InterruptedException {
+		Files.createDirectories(dir);
+		BlockingQueue<ByteBuffer> queue = new ArrayBlockingQueue<>(shards * 4);
+
+		// Start the writers first, so the queue is drained from the beginning
+		List<Writer> writers = new ArrayList<>(shards);
+		for (int i = 0; i < shards; i++) {
+			Path file = dir.resolve(String.format("shard-%05d.bin%s", i, gzip ? ".gz" : ""));
+			Writer writer = new Writer(open(file, gzip), queue);
+			writer.thread.start();
+			writers.add(writer);
+		}
+
+		Semaphore slots = new Semaphore(concurrency);
+		List<Future<?>> running = new ArrayList<>();
+		ExecutorService players = Executors.newFixedThreadPool(concurrency);
+		try {
+			for (int i = 0; i < games; i++) {
+				int game = i;
+				slots.acquire();
+				running.add(players.submit(() -> {
+					try {
+						ByteBuffer records = play(game);
+						if (records.hasRemaining()) {
+							queue.put(records);
+						}
+					} finally {
+						slots.release();
+					}
+					return null;
+				}));
+			}
+
+			// Surface any failed game
+			for (Future<?> future : running) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Game failed", e.getCause());
+				}
+			}
+		} finally {
+			players.shutdown();
+
+			// Every writer takes one end marker and stops
+			for (int i = 0; i < shards; i++) {
+				queue.put(END);
+			}
+		}
+
+		long records = 0;
+		for (Writer writer : writers) {
+			writer.thread.join();
+			if (writer.failure != null) {
+				throw new IOException("Writing shard failed", writer.failure);
+			}
+			records += writer.bytes / TrainingRecord.SIZE;
+		}
+
+		return records;
+	}
+
+    /**
+     * Plays one game, keeping a sample of its positions.
+     *
+     * @param game - Which game this is.
+     * @return - The sampled records, ready to be written.
+     */
+	private ByteBuffer play(int game) {
+		Random rand = new Random(seed + game);
+		List<Position> positions = new ArrayList<>();
+		List<Integer> scores = new ArrayList<>();
+		Position position = new Position(new Board(8, 8), SqState.BLACK);
+		SqState winner = null;
+
+		for (int ply = 0; ply < maxPlies; ply++) {
+			ArrayList<Move> moves = position.getLegalMoves();
+
+			// The player left to move with no moves loses
+			if (moves.isEmpty()) {
+				winner = position.getPlayer().getOpposite();
+				break;
+			}
+
+			Move move;
+			if (ply < randomPlies) {
+				move = moves.get(rand.nextInt(moves.size()));
+			} else {
+				SearchResult searched = engine.search(position, limits);
+				move = searched.getMove();
+				if (rand.nextDouble() < sampleRate) {
+					positions.add(position);
+					scores.add(searched.getScore());
+				}
+			}
+
+			position = position.afterMove(move);
+		}
+
+		// Results are only known once the game is over
+		ByteBuffer records = ByteBuffer.allocate(positions.size() * TrainingRecord.SIZE).order(TrainingRecord.ORDER);
+		for (int i = 0; i < positions.size(); i++) {
+			Position sampled = positions.get(i);
+			int result = winner == null ? 0 : sampled.getPlayer() == winner ? 1 : -1;
+			TrainingRecord.write(records, sampled, scores.get(i), result);
+		}
+		records.flip();
+
+		return records;
+	}
+
+    /**
+     * Opens a shard for writing.
+     *
+     * @param file - The shard.
+     * @param gzip - True to compress it.
+     * @return - The channel to write the records to.
+     */
+	private static WritableByteChannel open(Path file, boolean gzip) throws IOException {
+		if (gzip) {
+			return Channels.newChannel(new GZIPOutputStream(Files.newOutputStream(file), WRITE_BUFFER));
+		}
+
+		return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Writes queued records to one shard through a buffer.
+	 */
+	private static class Writer implements Runnable {
+
+		private final WritableByteChannel channel;
+		private final BlockingQueue<ByteBuffer> queue;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+		private final Thread thread = new Thread(this, "shard-writer");
+		private long bytes;
+		private IOException failure;
+
+		private Writer(WritableByteChannel channel, BlockingQueue<ByteBuffer> queue) {
+			this.channel = channel;
+			this.queue = queue;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					ByteBuffer records = queue.take();
+					if (records == END) {
+						break;
+					}
+
+					// Keep draining after a failure, so games aren't left waiting on the queue
+					if (failure == null) {
+						try {
+							write(records);
+						} catch (IOException e) {
+							failure = e;
+						}
+					}
+				}
+
+				if (failure == null) {
+					flush();
+				}
+			} catch (IOException e) {
+				failure = e;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					if (failure == null) {
+						failure = e;
+					}
+				}
+			}
+		}
+
+		private void write(ByteBuffer records) throws IOException {
+			bytes += records.remaining();
+			while (records.hasRemaining()) {
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+
+				// Copy as much as fits
+				int length = Math.min(buffer.remaining(), records.remaining());
+				ByteBuffer slice = records.duplicate();
+				slice.limit(slice.position() + length);
+				buffer.put(slice);
+				records.position(records.position() + length);
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+    /**
+     * Generates training data from the command line.
+     * Usage: selfplay [--games N] [--concurrency N] [--threads N] [--depth N] [--random-plies N]
+     *                 [--max-plies N] [--sample P] [--shards N] [--gzip] [--seed N] [--out dir]
+     *
+     * @param args - The command line arguments, after 'selfplay'.
+     */
+	public static void run(String[] args) throws IOException, InterruptedException {
+		int games = 100, concurrency = 16, depth = 3, randomPlies = 6, maxPlies = 200, shards = 4;
+		int threads = Runtime.getRuntime().availableProcessors();
+		double sampleRate = 0.5;
+		boolean gzip = false;
+		long seed = 1;
+		String dir = "training";
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--games":
+					games = Integer.parseInt(args[++i]);
+					break;
+				case "--concurrency":
+					concurrency = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--depth":
+					depth = Integer.parseInt(args[++i]);
+					break;
+				case "--random-plies":
+					randomPlies = Integer.parseInt(args[++i]);
+					break;
+				case "--max-plies":
+					maxPlies = Integer.parseInt(args[++i]);
+					break;
+				case "--sample":
+					sampleRate = Double.parseDouble(args[++i]);
+					break;
+				case "--shards":
+					shards = Integer.parseInt(args[++i]);
+					break;
+				case "--gzip":
+					gzip = true;
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--out":
+					dir = args[++i];
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		try (Engine engine = new Engine(threads)) {
+			TrainingGenerator generator = new TrainingGenerator(engine, new SearchLimits(depth),
+					randomPlies, maxPlies, sampleRate, seed);
+
+			long start = System.currentTimeMillis();
+			long records = generator.run(games, concurrency, Paths.get(dir), shards, gzip);
+			System.out.println(records + " records from " + games + " games written to " + dir + " in " +
+					(System.currentTimeMillis() - start) + " ms");
+		}
+	}
+}
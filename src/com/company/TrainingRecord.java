@@ -0,0 +1,123 @@
+package com.company;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The fixed width binary form of one training position, 16 bytes little endian:
+ *      int   black   - a bit per square holding a black piece
+ *      int   white   - a bit per square holding a white piece
+ *      int   kings   - a bit per square holding a king of either color
+ *      byte  side    - 0 if black is to move, 1 if white is
+ *      short score   - the search score for the player to move
+ *      byte  result  - how the game ended for the player to move, 1 a win, 0 a draw, -1 a loss
+ * Squares are the 32 valid squares of an 8x8 board, numbered in the order of Position's text form.
+ * Records have no header or separator, so record n of a file starts at byte n * SIZE.
+ */
+public class TrainingRecord {
+
+	// Bytes per record
+	public static final int SIZE = 16;
+
+	// Squares on an 8x8 board
+	public static final int SQUARES = 32;
+
+	// Byte order of every record
+	public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	private TrainingRecord() {
+	}
+
+    /**
+     * Writes a record at the buffer's position, moving it on by SIZE.
+     *
+     * @param buffer - Where to write, in ORDER.
+     * @param position - An 8x8 position.
+     * @param score - The search score for the player to move, clamped to fit a short.
+     * @param result - How the game ended for the player to move.
+     */
+	public static void write(ByteBuffer buffer, Position position, int score, int result) {
+		Board board = position.getBoard();
+		if (board.getRows() != 8 || board.getCols() != 8) {
+			throw new IllegalArgumentException("Only 8x8 boards fit a record");
+		}
+
+		int black = 0, white = 0, kings = 0, k = 0;
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				if (board.isValidSquare(i, j)) {
+					SqState state = board.getSquare(i, j);
+					if (state.isSame(SqState.BLACK)) {
+						black |= 1 << k;
+					} else if (state.isSame(SqState.WHITE)) {
+						white |= 1 << k;
+					}
+					if (state.isKinged()) {
+						kings |= 1 << k;
+					}
+					k++;
+				}
+			}
+		}
+
+		buffer.putInt(black);
+		buffer.putInt(white);
+		buffer.putInt(kings);
+		buffer.put((byte) (position.getPlayer() == SqState.BLACK ? 0 : 1));
+		buffer.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score)));
+		buffer.put((byte) result);
+	}
+
+    /**
+     * Reads the position of the record at an absolute offset.
+     *
+     * @param buffer - Holds the record, in ORDER.
+     * @param offset - Where the record starts.
+     * @return - The position.
+     */
+	public static Position readPosition(ByteBuffer buffer, int offset) {
+		int black = buffer.getInt(offset), white = buffer.getInt(offset + 4), kings = buffer.getInt(offset + 8);
+		Board board = new Board(8, 8);
+
+		int k = 0;
+		for (int i = 0; i < 8; i++) {
+			for (int j = 0; j < 8; j++) {
+				if (board.isValidSquare(i, j)) {
+					boolean king = (kings >>> k & 1) != 0;
+					if ((black >>> k & 1) != 0) {
+						board.setSquare(i, j, king ? SqState.BLACK_K : SqState.BLACK);
+					} else if ((white >>> k & 1) != 0) {
+						board.setSquare(i, j, king ? SqState.WHITE_K : SqState.WHITE);
+					} else {
+						board.setSquare(i, j, SqState.EMPTY);
+					}
+					k++;
+				}
+			}
+		}
+
+		return new Position(board, buffer.get(offset + 12) == 0 ? SqState.BLACK : SqState.WHITE);
+	}
+
+    /**
+     * Reads the score of the record at an absolute offset.
+     *
+     * @param buffer - Holds the record, in ORDER.
+     * @param offset - Where the record starts.
+     * @return - The search score for the player to move.
+     */
+	public static int readScore(ByteBuffer buffer, int offset) {
+		return buffer.getShort(offset + 13);
+	}
+
+    /**
+     * Reads the result of the record at an absolute offset.
+     *
+     * @param buffer - Holds the record, in ORDER.
+     * @param offset - Where the record starts.
+     * @return - How the game ended for the player to move, 1 a win, 0 a draw, -1 a loss.
+     */
+	public static int readResult(ByteBuffer buffer, int offset) {
+		return buffer.get(offset + 15);
+	}
+}
@@ -0,0 +1,176 @@
+package com.company;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers the result of every subtree searched, so a board reached again
+ * by a different order of moves isn't searched twice.
+ * A subtree's score depends on how deep it sits as well as how deep the search goes,
+ * so both are part of the key along with the board.
+ * Safe to share between any number of tasks and searches of the same position.
+ *
+ * Subtrees are kept in a fixed number of buckets of two slots, found by hashing the board's bits,
+ * so nothing is built per lookup. The first slot keeps whichever subtree had the most depth left below it,
+ * the costliest to search again, and the second always takes the latest, so a long search keeps
+ * storing the subtrees it's working on once the table is full.
+ */
+public class TranspositionTable {
+
+	private final AtomicReferenceArray<Slot> slots;
+	private final int mask;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity - The most subtrees to remember, rounded up to a power of two.
+     */
+	public TranspositionTable(int capacity) {
+		int size = Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+		this.slots = new AtomicReferenceArray<>(size);
+		this.mask = size / 2 - 1;
+	}
+
+    /**
+     * Looks up a subtree.
+     *
+     * @param board - The board at the top of the subtree.
+     * @param player - Whose turn it is.
+     * @param iters - How deep the board is.
+     * @param maxIters - How deep the search goes.
+     * @return - The stored result, or null if the subtree hasn't been searched.
+     */
+	Entry get(Board board, SqState player, int iters, int maxIters) {
+		int bucket = bucket(board, player, iters, maxIters);
+		for (int i = bucket; i < bucket + 2; i++) {
+			Slot slot = slots.get(i);
+			if (slot != null && slot.matches(board, player, iters, maxIters)) {
+				return slot.entry;
+			}
+		}
+		return null;
+	}
+
+    /**
+     * Stores a subtree's result, making room by the replacement policy.
+     *
+     * @param board - The board at the top of the subtree.
+     * @param player - Whose turn it is.
+     * @param iters - How deep the board is.
+     * @param maxIters - How deep the search goes.
+     * @param entry - The result.
+     */
+	void put(Board board, SqState player, int iters, int maxIters, Entry entry) {
+		int bucket = bucket(board, player, iters, maxIters);
+		Slot slot = new Slot(board, player, iters, maxIters, entry);
+		Slot deepest = slots.get(bucket);
+
+		// The deeper subtree keeps the first slot, and the other moves to the second
+		if (deepest == null || deepest.matches(board, player, iters, maxIters) ||
+				deepest.maxIters - deepest.iters <= maxIters - iters) {
+			slots.set(bucket, slot);
+			if (deepest != null && !deepest.matches(board, player, iters, maxIters)) {
+				slots.set(bucket + 1, deepest);
+			}
+		} else {
+			slots.set(bucket + 1, slot);
+		}
+	}
+
+    /**
+     * Getter for the size.
+     * Counts every slot, so is only meant for reports.
+     *
+     * @return - How many subtrees are stored.
+     */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < slots.length(); i++) {
+			if (slots.get(i) != null) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+    /**
+     * Forgets every subtree.
+     */
+	public void clear() {
+		for (int i = 0; i < slots.length(); i++) {
+			slots.set(i, null);
+		}
+	}
+
+    /**
+     * Finds the first slot of a subtree's bucket.
+     *
+     * @return - The index of the bucket's first slot.
+     */
+	private int bucket(Board board, SqState player, int iters, int maxIters) {
+		long hash = board.getBlack() * 0x9e3779b97f4a7c15L;
+		hash = (hash ^ board.getWhite()) * 0xbf58476d1ce4e5b9L;
+		hash = (hash ^ board.getKings()) * 0x94d049bb133111ebL;
+		hash ^= (long) board.getRows() << 48 | (long) iters << 32 | (long) maxIters << 16 | player.ordinal();
+		hash = (hash ^ (hash >>> 31)) * 0x9e3779b97f4a7c15L;
+		return ((int) (hash ^ (hash >>> 32)) & mask) * 2;
+	}
+
+	/**
+	 * A stored subtree along with its key.
+	 * Never changed once stored, so readers see a whole key and result or none at all.
+	 */
+	private static final class Slot {
+
+		private final long black, white, kings;
+		private final int rows;
+		private final SqState player;
+		private final int iters, maxIters;
+		private final Entry entry;
+
+		private Slot(Board board, SqState player, int iters, int maxIters, Entry entry) {
+			this.black = board.getBlack();
+			this.white = board.getWhite();
+			this.kings = board.getKings();
+			this.rows = board.getRows();
+			this.player = player;
+			this.iters = iters;
+			this.maxIters = maxIters;
+			this.entry = entry;
+		}
+
+		private boolean matches(Board board, SqState player, int iters, int maxIters) {
+			return black == board.getBlack() && white == board.getWhite() && kings == board.getKings() &&
+					rows == board.getRows() && this.player == player && this.iters == iters &&
+					this.maxIters == maxIters;
+		}
+	}
+
+	/**
+	 * The result of one subtree.
+	 */
+	static class Entry {
+
+		private final Move move;
+		private final int score;
+		private final List<Move> pv;
+
+		Entry(Move move, int score, List<Move> pv) {
+			this.move = move;
+			this.score = score;
+			this.pv = pv;
+		}
+
+		Move getMove() {
+			return move;
+		}
+
+		int getScore() {
+			return score;
+		}
+
+		List<Move> getPv() {
+			return pv;
+		}
+	}
+}
@@ -0,0 +1,385 @@
+package com.company;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Fits the evaluation weights to game results, Texel style.
+ * Each position's evaluation is turned into an expected result with a sigmoid,
+ * and the weights are moved to shrink the mean squared error against the real results.
+ * Positions are read once from training shards, mapped into memory, and boiled down
+ * to their feature counts in primitive arrays, so every pass after that is plain arithmetic.
+ * Passes are split into chunks and run on every core.
+ */
+public class Tuner {
+
+	// Records per chunk of work
+	private static final int CHUNK = 1 << 16;
+
+	// Largest mapping, a whole number of records
+	private static final long MAX_MAP = (Integer.MAX_VALUE / TrainingRecord.SIZE) * (long) TrainingRecord.SIZE;
+
+	// Adam's decay rates
+	private static final double BETA1 = 0.9, BETA2 = 0.999;
+
+	private final ExecutorService pool;
+	private final int size;
+
+	// Feature counts of the player to move minus the opponent's, Weights.COUNT per position
+	private final byte[] features;
+
+	// Results for the player to move, 1 a win, 0.5 a draw, 0 a loss
+	private final float[] targets;
+
+    /**
+     * Constructor.
+     * Reads every record and extracts its features.
+     *
+     * @param shards - Training shards, '.bin' files are mapped and '.bin.gz' files are read through.
+     * @param pool - Runs the work, one chunk per task.
+     */
+	public Tuner(List<Path> shards, ExecutorService pool) throws IOException, InterruptedException {
+		this.pool = pool;
+
+		List<ByteBuffer> buffers = new ArrayList<>();
+		long records = 0;
+		for (Path shard : shards) {
+			for (ByteBuffer buffer : read(shard)) {
+				buffers.add(buffer.order(TrainingRecord.ORDER));
+				records += buffer.limit() / TrainingRecord.SIZE;
+			}
+		}
+		if (records > Integer.MAX_VALUE / Weights.COUNT) {
+			throw new IllegalArgumentException("Too many records: " + records);
+		}
+
+		this.size = (int) records;
+		this.features = new byte[size * Weights.COUNT];
+		this.targets = new float[size];
+
+		// Extract in chunks, each writing its own part of the arrays
+		List<Callable<Void>> tasks = new ArrayList<>();
+		int first = 0;
+		for (ByteBuffer buffer : buffers) {
+			int count = buffer.limit() / TrainingRecord.SIZE;
+			for (int start = 0; start < count; start += CHUNK) {
+				int from = start, to = Math.min(count, start + CHUNK), index = first + start;
+				tasks.add(() -> {
+					extract(buffer, from, to, index);
+					return null;
+				});
+			}
+			first += count;
+		}
+		invokeAll(tasks);
+	}
+
+    /**
+     * Getter for the size.
+     *
+     * @return - How many positions are being fitted.
+     */
+	public int size() {
+		return size;
+	}
+
+    /**
+     * Finds the sigmoid scale that best fits the given weights to the results.
+     * Tuning with this scale fixed keeps the tuned weights on the same scale as the given ones.
+     *
+     * @param weights - The weights to fit the scale to.
+     * @return - The scale.
+     */
+	public double fitScale(double[] weights) throws InterruptedException {
+		// The error is smooth with a single minimum in the scale, so narrow it down by thirds
+		double low = 0.0001, high = 2;
+		for (int i = 0; i < 60; i++) {
+			double a = low + (high - low) / 3, b = high - (high - low) / 3;
+			if (pass(weights, a)[Weights.COUNT] < pass(weights, b)[Weights.COUNT]) {
+				high = b;
+			} else {
+				low = a;
+			}
+		}
+
+		return (low + high) / 2;
+	}
+
+    /**
+     * Finds the mean squared error of some weights.
+     *
+     * @param weights - The weights.
+     * @param scale - The sigmoid scale.
+     * @return - The error.
+     */
+	public double error(double[] weights, double scale) throws InterruptedException {
+		return pass(weights, scale)[Weights.COUNT];
+	}
+
+    /**
+     * Moves the weights down the error's gradient with Adam.
+     *
+     * @param weights - The weights to start from, changed in place.
+     * @param scale - The sigmoid scale.
+     * @param iterations - How many passes to make.
+     * @param rate - How far to step each pass.
+     * @param progressEvery - Print the error after this many passes, or 0 to stay quiet.
+     * @return - The error of the final weights.
+     */
+	public double tune(double[] weights, double scale, int iterations, double rate, int progressEvery)
+			throws InterruptedException {
+		double[] m = new double[Weights.COUNT], v = new double[Weights.COUNT];
+		double error = 0;
+
+		for (int t = 1; t <= iterations; t++) {
+			double[] gradient = pass(weights, scale);
+			error = gradient[Weights.COUNT];
+
+			for (int i = 0; i < Weights.COUNT; i++) {
+				m[i] = BETA1 * m[i] + (1 - BETA1) * gradient[i];
+				v[i] = BETA2 * v[i] + (1 - BETA2) * gradient[i] * gradient[i];
+				double mHat = m[i] / (1 - Math.pow(BETA1, t)), vHat = v[i] / (1 - Math.pow(BETA2, t));
+				weights[i] -= rate * mHat / (Math.sqrt(vHat) + 1e-12);
+			}
+
+			if (progressEvery > 0 && t % progressEvery == 0) {
+				System.out.printf("Pass %d: error %.6f%n", t, error);
+			}
+		}
+
+		return error;
+	}
+
+    /**
+     * Works out the error and its gradient over every position, a chunk per task.
+     *
+     * @param weights - The weights.
+     * @param scale - The sigmoid scale.
+     * @return - The gradient by feature index, followed by the error.
+     */
+	private double[] pass(double[] weights, double scale) throws InterruptedException {
+		List<Callable<double[]>> tasks = new ArrayList<>();
+		for (int start = 0; start < size; start += CHUNK) {
+			int from = start, to = Math.min(size, start + CHUNK);
+			tasks.add(() -> chunk(weights, scale, from, to));
+		}
+
+		double[] total = new double[Weights.COUNT + 1];
+		for (double[] part : invokeAll(tasks)) {
+			for (int i = 0; i <= Weights.COUNT; i++) {
+				total[i] += part[i];
+			}
+		}
+		for (int i = 0; i <= Weights.COUNT; i++) {
+			total[i] /= Math.max(1, size);
+		}
+
+		return total;
+	}
+
+    /**
+     * Sums the error and its gradient over some of the positions.
+     *
+     * @param weights - The weights.
+     * @param scale - The sigmoid scale.
+     * @param from - The first position.
+     * @param to - One past the last position.
+     * @return - The summed gradient by feature index, followed by the summed error.
+     */
+	private double[] chunk(double[] weights, double scale, int from, int to) {
+		double[] sums = new double[Weights.COUNT + 1];
+
+		for (int p = from; p < to; p++) {
+			int base = p * Weights.COUNT;
+			double eval = 0;
+			for (int i = 0; i < Weights.COUNT; i++) {
+				eval += weights[i] * features[base + i];
+			}
+
+			double expected = 1 / (1 + Math.exp(-scale * eval));
+			double diff = expected - targets[p];
+			sums[Weights.COUNT] += diff * diff;
+
+			// Derivative of the squared error through the sigmoid
+			double slope = 2 * diff * expected * (1 - expected) * scale;
+			for (int i = 0; i < Weights.COUNT; i++) {
+				sums[i] += slope * features[base + i];
+			}
+		}
+
+		return sums;
+	}
+
+    /**
+     * Extracts the features of some records.
+     *
+     * @param buffer - The records.
+     * @param from - The first record in the buffer.
+     * @param to - One past the last record in the buffer.
+     * @param index - Where the first record goes in the arrays.
+     */
+	private void extract(ByteBuffer buffer, int from, int to, int index) {
+		int[] own = new int[Weights.COUNT], other = new int[Weights.COUNT];
+
+		for (int r = from; r < to; r++, index++) {
+			int offset = r * TrainingRecord.SIZE;
+			Position position = TrainingRecord.readPosition(buffer, offset);
+			position.getBoard().countFeatures(position.getPlayer(), own);
+			position.getBoard().countFeatures(position.getPlayer().getOpposite(), other);
+
+			for (int i = 0; i < Weights.COUNT; i++) {
+				features[index * Weights.COUNT + i] = (byte) (own[i] - other[i]);
+			}
+			targets[index] = (TrainingRecord.readResult(buffer, offset) + 1) / 2f;
+		}
+	}
+
+    /**
+     * Runs tasks on the pool and waits for them all.
+     *
+     * @param tasks - The tasks.
+     * @return - Their results, in order.
+     */
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) throws InterruptedException {
+		List<T> results = new ArrayList<>(tasks.size());
+		for (Future<T> future : pool.invokeAll(tasks)) {
+			try {
+				results.add(future.get());
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Tuning failed", e.getCause());
+			}
+		}
+
+		return results;
+	}
+
+    /**
+     * Reads a shard into buffers of whole records.
+     * Plain shards are mapped, in pieces if they're too big for one mapping.
+     * Compressed shards can't be mapped, so they're read onto the heap.
+     *
+     * @param shard - The shard.
+     * @return - The shard's records.
+     */
+	private static List<ByteBuffer> read(Path shard) throws IOException {
+		List<ByteBuffer> buffers = new ArrayList<>();
+
+		if (shard.toString().endsWith(".gz")) {
+			try (InputStream in = new GZIPInputStream(Files.newInputStream(shard), 1 << 16)) {
+				byte[] bytes = in.readAllBytes();
+				buffers.add(ByteBuffer.wrap(bytes, 0, bytes.length - bytes.length % TrainingRecord.SIZE).slice());
+			}
+			return buffers;
+		}
+
+		try (FileChannel channel = FileChannel.open(shard, StandardOpenOption.READ)) {
+			long length = channel.size() - channel.size() % TrainingRecord.SIZE;
+			for (long start = 0; start < length; start += MAX_MAP) {
+				buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAX_MAP, length - start)));
+			}
+		}
+
+		return buffers;
+	}
+
+    /**
+     * Tunes the weights from the command line.
+     * Usage: tune [--threads N] [--iterations N] [--rate R] [--scale S] [--out file] shard-or-dir...
+     * Directories are searched for '.bin' and '.bin.gz' shards.
+     * Tuning starts from the weights the engine was started with, and the tuned weights
+     * are multiplied by the scale before being rounded, since the engine only scores in whole points.
+     *
+     * @param args - The command line arguments, after 'tune'.
+     */
+	public static void run(String[] args) throws IOException, InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors(), iterations = 500;
+		double rate = 0.05, scale = 1;
+		String outFile = "weights.properties";
+		List<Path> shards = new ArrayList<>();
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--iterations":
+					iterations = Integer.parseInt(args[++i]);
+					break;
+				case "--rate":
+					rate = Double.parseDouble(args[++i]);
+					break;
+				case "--scale":
+					scale = Double.parseDouble(args[++i]);
+					break;
+				case "--out":
+					outFile = args[++i];
+					break;
+				default:
+					Path path = Paths.get(args[i]);
+					if (Files.isDirectory(path)) {
+						try (Stream<Path> files = Files.list(path)) {
+							shards.addAll(files
+									.filter(file -> file.toString().endsWith(".bin") || file.toString().endsWith(".bin.gz"))
+									.sorted()
+									.collect(Collectors.toList()));
+						}
+					} else {
+						shards.add(path);
+					}
+			}
+		}
+		if (shards.isEmpty()) {
+			throw new IllegalArgumentException("Usage: tune [--threads N] [--iterations N] [--rate R] [--scale S] " +
+					"[--out file] shard-or-dir...");
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			long start = System.currentTimeMillis();
+			Tuner tuner = new Tuner(shards, pool);
+			System.out.println("Read " + tuner.size() + " positions from " + shards.size() + " shard(s) in " +
+					(System.currentTimeMillis() - start) + " ms");
+
+			double[] weights = new double[Weights.COUNT];
+			for (int i = 0; i < Weights.COUNT; i++) {
+				weights[i] = Weights.CURRENT[i];
+			}
+
+			double sigmoidScale = tuner.fitScale(weights);
+			double before = tuner.error(weights, sigmoidScale);
+			System.out.printf("Sigmoid scale %.5f, starting error %.6f%n", sigmoidScale, before);
+
+			start = System.currentTimeMillis();
+			double after = tuner.tune(weights, sigmoidScale, iterations, rate, Math.max(1, iterations / 10));
+			System.out.printf("Tuned error %.6f in %d ms%n", after, System.currentTimeMillis() - start);
+
+			int[] rounded = new int[Weights.COUNT];
+			for (int i = 0; i < Weights.COUNT; i++) {
+				rounded[i] = (int) Math.round(weights[i] * scale);
+				System.out.printf("%s: %.3f -> %d%n", Weights.getName(i), weights[i], rounded[i]);
+			}
+
+			Weights.write(Paths.get(outFile), rounded, String.format("Tuned on %d positions, error %.6f -> %.6f",
+					tuner.size(), before, after));
+			System.out.println("Weights written to " + outFile + ", load them with -Dcheckers.weights=" + outFile);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
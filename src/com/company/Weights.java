@@ -0,0 +1,104 @@
+package com.company;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * The points each kind of piece is worth to 'Board.getScore'.
+ * Pieces are split by whether they're a king and whether they're safe from being jumped.
+ * The weights used are read at startup from the file named by the 'checkers.weights' system property,
+ * written by the tuner, and are otherwise the hand picked 4, 3, 2 and 1.
+ */
+public class Weights {
+
+	// Feature indices
+	public static final int SAFE_KING = 0;
+	public static final int SAFE_MAN = 1;
+	public static final int UNSAFE_KING = 2;
+	public static final int UNSAFE_MAN = 3;
+	public static final int COUNT = 4;
+
+	// Names in the weights file, by feature index
+	private static final String[] NAMES = {"safeKing", "safeMan", "unsafeKing", "unsafeMan"};
+
+	// The weights the engine plays with
+	static final int[] CURRENT = load();
+
+	private Weights() {
+	}
+
+    /**
+     * Reads the weights named by the 'checkers.weights' system property, or the defaults if it isn't set.
+     *
+     * @return - The weights, by feature index.
+     */
+	private static int[] load() {
+		String file = System.getProperty("checkers.weights");
+		if (file == null) {
+			return new int[]{4, 3, 2, 1};
+		}
+
+		try {
+			return read(Paths.get(file));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Can't read weights from " + file, e);
+		}
+	}
+
+    /**
+     * Reads a weights file.
+     * Weights missing from the file keep their default.
+     *
+     * @param file - A file written by 'write'.
+     * @return - The weights, by feature index.
+     */
+	public static int[] read(Path file) throws IOException {
+		Properties properties = new Properties();
+		try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			properties.load(in);
+		}
+
+		int[] weights = {4, 3, 2, 1};
+		for (int i = 0; i < COUNT; i++) {
+			String value = properties.getProperty(NAMES[i]);
+			if (value != null) {
+				weights[i] = Integer.parseInt(value.trim());
+			}
+		}
+
+		return weights;
+	}
+
+    /**
+     * Writes a weights file, one 'name=value' per line.
+     *
+     * @param file - Where to write.
+     * @param weights - The weights, by feature index.
+     * @param comment - A line describing where the weights came from.
+     */
+	public static void write(Path file, int[] weights, String comment) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			out.write("# " + comment + "\n");
+			for (int i = 0; i < COUNT; i++) {
+				out.write(NAMES[i] + "=" + weights[i] + "\n");
+			}
+		}
+	}
+
+    /**
+     * Getter for a feature's name.
+     *
+     * @param feature - The feature index.
+     * @return - Its name in the weights file.
+     */
+	public static String getName(int feature) {
+		return NAMES[feature];
+	}
+}
@@ -0,0 +1,94 @@
+package com.company;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks move generation against the perft corpus and against 'Move.checkLegal'.
+ */
+class PerftTest {
+
+	// Validating is slow, so the corpus is only validated this deep
+	private static final int VALIDATE_DEPTH = 4;
+
+	private static ForkJoinPool pool;
+
+	@BeforeAll
+	static void startPool() {
+		pool = new ForkJoinPool(2);
+	}
+
+	@AfterAll
+	static void stopPool() {
+		pool.shutdown();
+	}
+
+	@TestFactory
+	List<DynamicTest> corpusCountsMatch() throws IOException {
+		List<DynamicTest> tests = new ArrayList<>();
+		for (String[] entry : Perft.readCorpus()) {
+			tests.add(DynamicTest.dynamicTest(entry[0] + " depth " + entry[1], () -> assertEquals(
+					Long.parseLong(entry[2]),
+					new Perft(pool, false).count(new Position(entry[0]), Integer.parseInt(entry[1])))));
+		}
+		return tests;
+	}
+
+	@Test
+	void cachedCountsMatch() throws IOException {
+		for (String[] entry : Perft.readCorpus()) {
+			assertEquals(Long.parseLong(entry[2]),
+					new Perft(pool, true).count(new Position(entry[0]), Integer.parseInt(entry[1])), entry[0]);
+		}
+	}
+
+	@TestFactory
+	List<DynamicTest> corpusMovesMatchCheckLegal() throws IOException {
+		List<DynamicTest> tests = new ArrayList<>();
+		for (String[] entry : Perft.readCorpus()) {
+			int depth = Math.min(VALIDATE_DEPTH, Integer.parseInt(entry[1]));
+			tests.add(DynamicTest.dynamicTest(entry[0] + " depth " + depth,
+					() -> new Perft(pool, false, true).count(new Position(entry[0]), depth)));
+		}
+		return tests;
+	}
+
+	@Test
+	void randomGamesMatchCheckLegal() {
+		Random rand = new Random(42);
+		for (int size = 8; size <= 10; size += 2) {
+			for (int game = 0; game < 100; game++) {
+				Position position = new Position(new Board(size, size), SqState.BLACK);
+				for (int ply = 0; ply < 200; ply++) {
+					ArrayList<Move> moves = position.getLegalMoves();
+					assertNull(Perft.compare(position, moves));
+					if (moves.isEmpty()) {
+						break;
+					}
+					position = position.afterMove(moves.get(rand.nextInt(moves.size())));
+				}
+			}
+		}
+	}
+
+	@Test
+	void compareFindsMissingMoves() {
+		Position position = new Position(new Board(8, 8), SqState.BLACK);
+		ArrayList<Move> moves = position.getLegalMoves();
+		moves.remove(moves.size() - 1);
+		assertNotNull(Perft.compare(position, moves));
+	}
+}
@@ -0,0 +1,52 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that Ponderer keeps the search of the position reached and stays out of the recording.
+ */
+class PondererTest {
+
+	private static final Position START = new Position(new Board(8, 8), SqState.BLACK);
+
+	@Test
+	void keepsThePredictedSearchWithoutRecording(@TempDir Path dir) throws Exception {
+		Path corpus = dir.resolve("corpus.txt");
+		try (Engine engine = new Engine(1); SearchRecorder recorder = new SearchRecorder(corpus)) {
+			engine.setRecorder(recorder);
+			Ponderer ponderer = new Ponderer(engine, new SearchLimits(4));
+
+			ponderer.start(START);
+			Move predicted = engine.search(START, new SearchLimits(1), null, false).getMove();
+			SearchResult result = ponderer.finish(START.afterMove(predicted));
+
+			assertNotNull(result);
+			assertEquals(4, result.getDepth());
+			assertNull(ponderer.finish(START));
+		}
+
+		assertEquals(0, Files.size(corpus));
+	}
+
+	@Test
+	void stopDropsSearchesNotYetStarted() {
+		try (Engine engine = new Engine(1)) {
+			Ponderer ponderer = new Ponderer(engine, new SearchLimits(30));
+			ponderer.start(START);
+			ponderer.stop();
+
+			// Every reply's position is forgotten, started or not
+			for (Move reply : START.getLegalMoves()) {
+				assertNull(ponderer.finish(START.afterMove(reply)));
+			}
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks per-game budgets and cancellation in SearchScheduler.
+ */
+class SearchSchedulerTest {
+
+	private static final Position START = new Position(new Board(8, 8), SqState.BLACK);
+
+	@Test
+	void chargesSearchTimeToItsGame() throws Exception {
+		try (SearchScheduler scheduler = new SearchScheduler(1, 1, 1, 1000, 0)) {
+			Object game = new Object();
+			scheduler.submit(game, START, new SearchLimits(5)).get(30, TimeUnit.SECONDS);
+
+			assertTrue(scheduler.getSpentMillis(game) > 0);
+			assertEquals(0, scheduler.getSpentMillis(new Object()));
+
+			scheduler.release(game);
+			assertEquals(0, scheduler.getSpentMillis(game));
+		}
+	}
+
+	@Test
+	void gameOverBudgetOnlyGetsMinimumDepth() throws Exception {
+		try (SearchScheduler scheduler = new SearchScheduler(1, 1, 2, 1000, 200)) {
+			Object game = new Object();
+
+			// Use up the budget, then every search is cut to the minimum depth
+			while (scheduler.getSpentMillis(game) < 200) {
+				scheduler.submit(game, START, new SearchLimits(7)).get(30, TimeUnit.SECONDS);
+			}
+			SearchResult result = scheduler.submit(game, START, new SearchLimits(7)).get(30, TimeUnit.SECONDS);
+			assertEquals(2, result.getDepth());
+
+			// Other games still get their full depth
+			assertEquals(4, scheduler.submit(new Object(), START, new SearchLimits(4))
+					.get(30, TimeUnit.SECONDS).getDepth());
+		}
+	}
+
+	@Test
+	void cancellingStopsARunningSearch() throws Exception {
+		try (SearchScheduler scheduler = new SearchScheduler(1, 1, 1, 1000, 0)) {
+			CompletableFuture<SearchResult> deep = scheduler.submit(START, new SearchLimits(30));
+			Thread.sleep(100);
+			deep.cancel(false);
+
+			// The only lane is free again straight away
+			SearchResult next = scheduler.submit(START, new SearchLimits(2)).get(10, TimeUnit.SECONDS);
+			assertEquals(2, next.getDepth());
+		}
+	}
+}
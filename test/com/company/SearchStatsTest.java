@@ -0,0 +1,45 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the branching factors reported by SearchStats.
+ */
+class SearchStatsTest {
+
+	@Test
+	void branchingFollowsThePlyCounts() {
+		try (Engine engine = new Engine(1)) {
+			SearchStats stats = engine.newStats();
+			engine.search(new Position(new Board(8, 8), SqState.BLACK), new SearchLimits(3), stats);
+			SearchStats.Snapshot snapshot = stats.snapshot();
+
+			long[] plyNodes = snapshot.getPlyNodes();
+			double[] branching = snapshot.getPlyBranching();
+			assertEquals(plyNodes.length, branching.length);
+
+			// Black has seven moves from the start
+			assertEquals(7.0, branching[0]);
+			for (int i = 0; i + 1 < plyNodes.length; i++) {
+				assertEquals((double) plyNodes[i + 1] / plyNodes[i], branching[i], 1e-9);
+			}
+			assertEquals((double) snapshot.getLeafEvals() / plyNodes[plyNodes.length - 1],
+					branching[branching.length - 1], 1e-9);
+
+			// Every board looked at is about the branching factor to the power of the depth
+			double effective = snapshot.getEffectiveBranching();
+			assertEquals(snapshot.getNodes() + snapshot.getLeafEvals(), Math.pow(effective, plyNodes.length), 1e-3);
+			assertTrue(effective > 7 && effective < 10);
+		}
+	}
+
+	@Test
+	void nothingSearchedHasNoBranching() {
+		SearchStats.Snapshot snapshot = new SearchStats(null).snapshot();
+		assertEquals(0, snapshot.getEffectiveBranching());
+		assertEquals(0, snapshot.getPlyBranching().length);
+	}
+}
@@ -0,0 +1,80 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks lookups and the replacement policy of TranspositionTable.
+ */
+class TranspositionTableTest {
+
+	private static TranspositionTable.Entry entry(int score) {
+		return new TranspositionTable.Entry(null, score, Collections.emptyList());
+	}
+
+	private static List<Board> boards(int count) {
+		List<Board> boards = new ArrayList<>();
+		Position position = new Position(new Board(8, 8), SqState.BLACK);
+		for (Move move : position.getLegalMoves()) {
+			Position next = position.afterMove(move);
+			for (Move reply : next.getLegalMoves()) {
+				boards.add(next.afterMove(reply).getBoard());
+			}
+		}
+		return boards.subList(0, count);
+	}
+
+	@Test
+	void findsWhatWasStored() {
+		TranspositionTable table = new TranspositionTable(1 << 10);
+		Board board = new Board(8, 8);
+		table.put(board, SqState.BLACK, 1, 4, entry(7));
+
+		assertEquals(7, table.get(board, SqState.BLACK, 1, 4).getScore());
+		assertNull(table.get(board, SqState.WHITE, 1, 4));
+		assertNull(table.get(board, SqState.BLACK, 2, 4));
+		assertNull(table.get(board, SqState.BLACK, 1, 5));
+		assertNull(table.get(new Board(10, 10), SqState.BLACK, 1, 4));
+	}
+
+	@Test
+	void keepsDeepestAndLatestWhenFull() {
+		// A single bucket, so every board shares it
+		TranspositionTable table = new TranspositionTable(2);
+		List<Board> boards = boards(3);
+
+		table.put(boards.get(0), SqState.BLACK, 0, 6, entry(0));
+		table.put(boards.get(1), SqState.BLACK, 4, 6, entry(1));
+		table.put(boards.get(2), SqState.BLACK, 5, 6, entry(2));
+
+		// The deepest subtree stays, the shallower ones take turns in the other slot
+		assertNotNull(table.get(boards.get(0), SqState.BLACK, 0, 6));
+		assertNull(table.get(boards.get(1), SqState.BLACK, 4, 6));
+		assertEquals(2, table.get(boards.get(2), SqState.BLACK, 5, 6).getScore());
+		assertEquals(2, table.size());
+
+		// A deeper subtree takes the first slot, moving the old one along
+		table.put(boards.get(1), SqState.BLACK, 0, 7, entry(3));
+		assertEquals(3, table.get(boards.get(1), SqState.BLACK, 0, 7).getScore());
+		assertNotNull(table.get(boards.get(0), SqState.BLACK, 0, 6));
+		assertNull(table.get(boards.get(2), SqState.BLACK, 5, 6));
+	}
+
+	@Test
+	void clearForgetsEverything() {
+		TranspositionTable table = new TranspositionTable(16);
+		for (Board board : boards(8)) {
+			table.put(board, SqState.WHITE, 1, 3, entry(1));
+		}
+		table.clear();
+
+		assertEquals(0, table.size());
+	}
+}